@@ -0,0 +1,236 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * ApiLoadTest (Tool)
+ * Load-test client for ApiServer. Runs many concurrent clients (one virtual
+ * thread each) that browse event listings, revalidate them
+ * with If-None-Match, open single events, register and sign up, then reports
+ * throughput, latency percentiles and the count of each HTTP status.
+ *
+ * Usage:
+ *   java ApiLoadTest [--url http://127.0.0.1:8080] [--clients 2000] [--requests 20]
+ *                    [--mix list=50,revalidate=25,event=15,signup=10]
+ *
+ * Start the server first with "java VolunteerApp --server [port]". Exits with
+ * status 1 if any request failed with a 5xx status or an I/O error.
+ */
+public class ApiLoadTest {
+
+    private static final String[] OPS = {"list", "revalidate", "event", "signup"};
+    private static final Pattern ID_FIELD = Pattern.compile("\"id\":\"([^\"]+)\"");
+
+    // --- Options ---
+    private String baseUrl = "http://127.0.0.1:" + ApiServer.DEFAULT_PORT;
+    private int clients = 2000;
+    private int requestsPerClient = 20;
+    private int[] mix = new int[OPS.length];
+
+    // --- Results ---
+    private HttpClient http;
+    private long[] latenciesNanos;
+    private final AtomicInteger latencyCount = new AtomicInteger();
+    private final Map<String, AtomicInteger> statusCounts = new ConcurrentHashMap<>();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private final AtomicInteger revalidations = new AtomicInteger();
+
+    public static void main(String[] args) throws Exception {
+        ApiLoadTest test = new ApiLoadTest();
+        test.parseArgs(args);
+        System.exit(test.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        String mixSpec = "list=50,revalidate=25,event=15,signup=10";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url" -> baseUrl = args[++i];
+                case "--clients" -> clients = Integer.parseInt(args[++i]);
+                case "--requests" -> requestsPerClient = Integer.parseInt(args[++i]);
+                case "--mix" -> mixSpec = args[++i];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        for (String part : mixSpec.split(",")) {
+            String[] kv = part.split("=");
+            int op = Arrays.asList(OPS).indexOf(kv[0].trim());
+            if (op < 0) throw new IllegalArgumentException("Unknown operation in --mix: " + kv[0]);
+            mix[op] = Integer.parseInt(kv[1].trim());
+        }
+    }
+
+    private boolean run() throws InterruptedException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        // The client keeps its own executor: sharing the pool that runs the blocked
+        // senders would leave no thread to complete their responses
+        http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        latenciesNanos = new long[clients * requestsPerClient];
+
+        System.out.printf("Running %d clients x %d requests against %s%n",
+            clients, requestsPerClient, baseUrl);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(clients);
+        long runSeed = System.nanoTime(); // New volunteers' emails must differ from earlier runs
+        for (int c = 0; c < clients; c++) {
+            final long seed = runSeed + c;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    runClient(new Random(seed));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsedNanos = System.nanoTime() - began;
+        executor.shutdownNow();
+
+        return report(elapsedNanos);
+    }
+
+    /** One client: a short browsing session with a mix of operations. */
+    private void runClient(Random random) {
+        String from = LocalDate.now().toString();
+        String listPath = "/api/events?from=" + from + "&limit=20";
+        String etag = null;
+        String eventId = null;
+        String volunteerId = null;
+
+        for (int i = 0; i < requestsPerClient; i++) {
+            int op = pickOp(random);
+            if (op == 1 && etag == null) op = 0; // Nothing to revalidate yet
+            if ((op == 2 || op == 3) && eventId == null) op = 0;
+
+            switch (OPS[op]) {
+                case "list" -> {
+                    HttpResponse<String> response = send(HttpRequest.newBuilder(uri(listPath)).GET());
+                    if (response != null && response.statusCode() == 200) {
+                        etag = response.headers().firstValue("ETag").orElse(null);
+                        Matcher m = ID_FIELD.matcher(response.body());
+                        int found = 0;
+                        while (m.find()) {
+                            if (random.nextInt(++found) == 0) eventId = m.group(1);
+                        }
+                    }
+                }
+                case "revalidate" -> {
+                    revalidations.incrementAndGet();
+                    HttpResponse<String> response = send(HttpRequest.newBuilder(uri(listPath))
+                        .header("If-None-Match", etag).GET());
+                    if (response != null && response.statusCode() == 304) {
+                        notModified.incrementAndGet();
+                    } else if (response != null && response.statusCode() == 200) {
+                        etag = response.headers().firstValue("ETag").orElse(null);
+                    }
+                }
+                case "event" -> send(HttpRequest.newBuilder(uri("/api/events/" + eventId)).GET());
+                case "signup" -> {
+                    if (volunteerId == null) {
+                        String email = "load-" + Long.toHexString(random.nextLong()) + "@example.org";
+                        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/volunteers"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"name\":\"Load Tester\",\"email\":\"" + email + "\",\"skills\":\"\"}")));
+                        if (response == null || response.statusCode() != 201) continue;
+                        Matcher m = ID_FIELD.matcher(response.body());
+                        if (!m.find()) continue;
+                        volunteerId = m.group(1);
+                    }
+                    send(HttpRequest.newBuilder(uri("/api/events/" + eventId + "/signups"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"volunteerId\":\"" + volunteerId + "\"}")));
+                }
+                default -> throw new IllegalStateException();
+            }
+        }
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) {
+        long t0 = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request.timeout(Duration.ofSeconds(60)).build(),
+                HttpResponse.BodyHandlers.ofString());
+            record(t0, Integer.toString(response.statusCode()));
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            record(t0, e.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    private void record(long t0, String outcome) {
+        int slot = latencyCount.getAndIncrement();
+        if (slot < latenciesNanos.length) latenciesNanos[slot] = System.nanoTime() - t0;
+        statusCounts.computeIfAbsent(outcome, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private int pickOp(Random random) {
+        int total = Arrays.stream(mix).sum();
+        int r = random.nextInt(total);
+        for (int op = 0; op < OPS.length; op++) {
+            r -= mix[op];
+            if (r < 0) return op;
+        }
+        return 0;
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private boolean report(long elapsedNanos) {
+        int count = Math.min(latencyCount.get(), latenciesNanos.length);
+        long[] sorted = Arrays.copyOf(latenciesNanos, count);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1e9;
+
+        System.out.printf("Requests: %d in %.2f s (%.0f req/s)%n", count, seconds, count / seconds);
+        if (count > 0) {
+            System.out.printf("Latency ms: p50 %.1f  p95 %.1f  p99 %.1f  max %.1f%n",
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), sorted[count - 1] / 1e6);
+        }
+        if (revalidations.get() > 0) {
+            System.out.printf("Revalidations: %d, %d answered 304 (%.0f%%)%n", revalidations.get(), notModified.get(),
+                100.0 * notModified.get() / revalidations.get());
+        }
+
+        boolean ok = true;
+        System.out.println("Outcomes:");
+        for (Map.Entry<String, AtomicInteger> e : new TreeMap<>(statusCounts).entrySet()) {
+            System.out.printf("  %-24s %d%n", e.getKey(), e.getValue().get());
+            if (!Character.isDigit(e.getKey().charAt(0)) || e.getKey().startsWith("5")) ok = false;
+        }
+        System.out.println(ok ? "OK" : "FAILED: server errors or I/O failures");
+        return ok;
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+}
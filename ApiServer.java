@@ -0,0 +1,494 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * ApiServer (Backend)
+ * Headless HTTP/JSON front end for DatabaseManager, for kiosks and scripts
+ * that need the GUI's operations without the GUI. Listens on localhost only.
+ *
+ *   GET    /api/events?from=&to=&after=&limit=   events page (ETag / If-None-Match)
+ *   GET    /api/events/{id}                      one event with description and counts
+ *   GET    /api/events/{id}/roster?after=&limit= roster page
+ *   POST   /api/events/{id}/signups              {"volunteerId": ...}
+ *   DELETE /api/events/{id}/signups/{volunteerId}
+ *   POST   /api/volunteers                       {"name": ..., "email": ..., "skills": ...}
+ *   GET    /api/volunteers/{id}
+ *
+ * Each request runs on its own virtual thread, so thousands of slow clients
+ * never exhaust threads. Database work is capped by a semaphore, so a burst
+ * queues cheaply instead of opening thousands of SQLite connections at once,
+ * and writes queue for the single SQLite writer in arrival order. Event
+ * listings carry an ETag built from the events version counter; an
+ * If-None-Match that matches it (weakly, or "*") gets a 304 without running
+ * the listing query.
+ * It contains NO Swing code.
+ */
+public class ApiServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 4096;
+    private static final int MAX_CONCURRENT_DB_CALLS = 32;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_WINDOW_DAYS = 28;
+
+    private final DatabaseManager dbManager;
+    private final int port;
+    private final Semaphore dbPermits = new Semaphore(MAX_CONCURRENT_DB_CALLS);
+    // SQLite has one writer at a time; queueing writers here is fair, unlike its busy retry loop
+    private final Semaphore writePermit = new Semaphore(1, true);
+    private HttpServer server;
+    private ExecutorService executor;
+
+    /** Maps to an HTTP error response. */
+    private static class ApiException extends Exception {
+        private static final long serialVersionUID = 1L;
+        final int status;
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    public ApiServer(DatabaseManager dbManager, int port) {
+        this.dbManager = dbManager;
+        this.port = port;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), BACKLOG);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.start();
+        System.out.println("API server listening on http://127.0.0.1:" + server.getAddress().getPort()
+            + "/api/ (virtual threads)");
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(1);
+            executor.shutdownNow();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // --- Routing ---
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getRawPath().substring("/api/".length()).split("/");
+            for (int i = 0; i < path.length; i++) {
+                path[i] = URLDecoder.decode(path[i], StandardCharsets.UTF_8);
+            }
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+            if (!method.equals("POST")) {
+                // An unread (even empty) request body makes the server drop the keep-alive connection
+                exchange.getRequestBody().readAllBytes();
+            }
+
+            boolean write = !method.equals("GET");
+            if (write) writePermit.acquire();
+            try {
+                dbPermits.acquire();
+                try {
+                    dbManager.clearLastError();
+                    route(exchange, method, path, query);
+                } finally {
+                    dbPermits.release();
+                }
+            } finally {
+                if (write) writePermit.release();
+            }
+        } catch (ApiException e) {
+            sendError(exchange, e.status, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Server is shutting down");
+        } catch (RuntimeException e) {
+            // Details stay in the server log; clients only learn that it failed
+            System.err.println("Error handling " + exchange.getRequestMethod() + " " + exchange.getRequestURI() + ": " + e);
+            sendError(exchange, 500, "Internal server error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange, String method, String[] path, Map<String, String> query)
+            throws IOException, ApiException {
+        if (path[0].equals("events")) {
+            if (path.length == 1 && method.equals("GET")) {
+                listEvents(exchange, query);
+            } else if (path.length == 2 && method.equals("GET")) {
+                getEvent(exchange, path[1]);
+            } else if (path.length == 3 && path[2].equals("roster") && method.equals("GET")) {
+                getRoster(exchange, path[1], query);
+            } else if (path.length == 3 && path[2].equals("signups") && method.equals("POST")) {
+                signUp(exchange, path[1]);
+            } else if (path.length == 4 && path[2].equals("signups") && method.equals("DELETE")) {
+                cancelSignup(exchange, path[1], path[3]);
+            } else {
+                throw new ApiException(404, "No such endpoint");
+            }
+        } else if (path[0].equals("volunteers")) {
+            if (path.length == 1 && method.equals("POST")) {
+                registerVolunteer(exchange);
+            } else if (path.length == 2 && method.equals("GET")) {
+                getVolunteer(exchange, path[1]);
+            } else {
+                throw new ApiException(404, "No such endpoint");
+            }
+        } else {
+            throw new ApiException(404, "No such endpoint");
+        }
+    }
+
+    // --- Endpoints ---
+
+    private void listEvents(HttpExchange exchange, Map<String, String> query) throws IOException, ApiException {
+        LocalDate fromDate = date(query, "from", LocalDate.now());
+        String from = fromDate.toString();
+        String to = date(query, "to", fromDate.plusDays(DEFAULT_WINDOW_DAYS - 1)).toString();
+        int limit = pageSize(query);
+        String after = query.get("after"); // "<date>|<id>" of the last event on the previous page
+
+        // The version is read first, so a change during the query only makes the ETag older
+        String etag = "\"events-" + dbManager.getEventsVersion() + "-"
+            + Integer.toHexString((from + "|" + to + "|" + after + "|" + limit).hashCode()) + "\"";
+        exchange.getResponseHeaders().set("ETag", etag);
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        if (ifNoneMatchHits(exchange.getRequestHeaders().get("If-None-Match"), etag)) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        String afterDate = null, afterId = null;
+        if (after != null) {
+            int bar = after.indexOf('|');
+            if (bar < 0) throw new ApiException(400, "Bad 'after' cursor");
+            afterDate = after.substring(0, bar);
+            afterId = after.substring(bar + 1);
+            try {
+                LocalDate.parse(afterDate);
+            } catch (DateTimeParseException e) {
+                throw new ApiException(400, "Bad 'after' cursor");
+            }
+        }
+        List<DatabaseManager.Event> events = dbManager.getEventsPage(from, to, afterDate, afterId, limit);
+        failIfDatabaseError();
+
+        StringBuilder json = new StringBuilder("{\"events\":[");
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0) json.append(',');
+            appendEvent(json, events.get(i));
+            json.append('}');
+        }
+        json.append("],\"next\":");
+        if (events.size() == limit) {
+            DatabaseManager.Event last = events.get(events.size() - 1);
+            json.append(str(last.date + "|" + last.id));
+        } else {
+            json.append("null");
+        }
+        sendJson(exchange, 200, json.append('}').toString());
+    }
+
+    private void getEvent(HttpExchange exchange, String eventId) throws IOException, ApiException {
+        DatabaseManager.Event event = dbManager.getEvent(eventId);
+        failIfDatabaseError();
+        if (event == null) throw new ApiException(404, "No such event");
+
+        StringBuilder json = new StringBuilder();
+        appendEvent(json, event);
+        json.append(",\"description\":").append(str(dbManager.getEventDescription(eventId)))
+            .append(",\"capacity\":").append(event.capacity)
+            .append(",\"signups\":").append(dbManager.getSignupCount(eventId))
+            .append(",\"waitlist\":").append(dbManager.getWaitlistSize(eventId))
+            .append('}');
+        sendJson(exchange, 200, json.toString());
+    }
+
+    private void getRoster(HttpExchange exchange, String eventId, Map<String, String> query)
+            throws IOException, ApiException {
+        int limit = pageSize(query);
+        List<DatabaseManager.RosterEntry> roster = dbManager.getRosterPage(eventId, query.get("after"), limit);
+        failIfDatabaseError();
+
+        StringBuilder json = new StringBuilder("{\"roster\":[");
+        for (int i = 0; i < roster.size(); i++) {
+            DatabaseManager.RosterEntry entry = roster.get(i);
+            if (i > 0) json.append(',');
+            json.append("{\"volunteerId\":").append(str(entry.volunteerId))
+                .append(",\"name\":").append(str(entry.name))
+                .append(",\"email\":").append(str(entry.email))
+                .append(",\"checkedInAt\":").append(str(entry.checkedInAt))
+                .append(",\"hours\":").append(entry.hours)
+                .append('}');
+        }
+        json.append("],\"next\":")
+            .append(roster.size() == limit ? str(roster.get(roster.size() - 1).volunteerId) : "null")
+            .append('}');
+        sendJson(exchange, 200, json.toString());
+    }
+
+    private void signUp(HttpExchange exchange, String eventId) throws IOException, ApiException {
+        String volunteerId = required(readJsonBody(exchange), "volunteerId");
+        DatabaseManager.SignupResult result = dbManager.joinEvent(volunteerId, eventId);
+        if (result == DatabaseManager.SignupResult.FAILED) {
+            failIfDatabaseError();
+            throw new ApiException(404, "No such event");
+        }
+        int status = (result == DatabaseManager.SignupResult.ALREADY_JOINED) ? 200 : 201;
+        String json = "{\"result\":" + str(result.name());
+        if (result == DatabaseManager.SignupResult.WAITLISTED) {
+            json += ",\"waitlistPosition\":" + dbManager.getWaitlistPosition(volunteerId, eventId);
+        }
+        sendJson(exchange, status, json + "}");
+    }
+
+    private void cancelSignup(HttpExchange exchange, String eventId, String volunteerId)
+            throws IOException, ApiException {
+        if (!dbManager.cancelSignup(volunteerId, eventId)) {
+            failIfDatabaseError();
+            throw new ApiException(404, "Not signed up or waitlisted");
+        }
+        exchange.sendResponseHeaders(204, -1);
+    }
+
+    private void registerVolunteer(HttpExchange exchange) throws IOException, ApiException {
+        Map<String, String> body = readJsonBody(exchange);
+        String name = required(body, "name");
+        String email = required(body, "email");
+        String id = dbManager.registerVolunteer(name, email, body.getOrDefault("skills", ""));
+        if (id == null) {
+            failIfDatabaseError();
+            throw new ApiException(500, "Registration failed");
+        }
+        sendJson(exchange, 201, "{\"id\":" + str(id) + "}");
+    }
+
+    private void getVolunteer(HttpExchange exchange, String volunteerId) throws IOException, ApiException {
+        DatabaseManager.Volunteer volunteer = dbManager.getVolunteer(volunteerId);
+        failIfDatabaseError();
+        if (volunteer == null) throw new ApiException(404, "No such volunteer");
+        sendJson(exchange, 200, "{\"id\":" + str(volunteer.id) + ",\"name\":" + str(volunteer.name)
+            + ",\"email\":" + str(volunteer.email) + ",\"skills\":" + str(volunteer.skills) + "}");
+    }
+
+    // --- Helpers ---
+
+    /** Appends an event's fields as an unterminated JSON object, so callers can add more. */
+    private static void appendEvent(StringBuilder json, DatabaseManager.Event event) {
+        json.append("{\"id\":").append(str(event.id))
+            .append(",\"title\":").append(str(event.title))
+            .append(",\"date\":").append(str(event.date))
+            .append(",\"location\":").append(str(event.location));
+        if (event.seriesId != null) {
+            json.append(",\"seriesId\":").append(str(event.seriesId));
+        }
+    }
+
+    /**
+     * DatabaseManager reports failures through null/false results; this turns
+     * the recorded cause into the matching HTTP status.
+     */
+    private void failIfDatabaseError() throws ApiException {
+        Exception e = dbManager.getLastError();
+        if (e == null) return;
+        String message = String.valueOf(e.getMessage());
+        if (message.contains("SQLITE_CONSTRAINT_UNIQUE")) throw new ApiException(409, "Already exists");
+        if (message.contains("SQLITE_CONSTRAINT_FOREIGNKEY")) throw new ApiException(404, "Unknown event or volunteer");
+        if (message.contains("SQLITE_BUSY")) throw new ApiException(503, "Database busy, retry");
+        System.err.println("API request failed on a database error: " + message);
+        throw new ApiException(500, "Internal server error");
+    }
+
+    /**
+     * True if an If-None-Match header lists the ETag or is "*". Each header
+     * line may hold a comma-separated list, and the comparison is weak, so
+     * W/"x" matches "x" (RFC 9110, section 13.1.2).
+     */
+    private static boolean ifNoneMatchHits(List<String> headerValues, String etag) {
+        if (headerValues == null) return false;
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String value : headerValues) {
+            for (String tag : value.split(",")) {
+                tag = tag.trim();
+                if (tag.equals("*")) return true;
+                if (tag.startsWith("W/")) tag = tag.substring(2);
+                if (tag.equals(opaque)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static int pageSize(Map<String, String> query) throws ApiException {
+        try {
+            int limit = Integer.parseInt(query.getOrDefault("limit", Integer.toString(DEFAULT_PAGE_SIZE)));
+            if (limit < 1) throw new ApiException(400, "'limit' must be at least 1");
+            return Math.min(limit, MAX_PAGE_SIZE);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "'limit' must be a number");
+        }
+    }
+
+    private static LocalDate date(Map<String, String> query, String name, LocalDate defaultValue)
+            throws ApiException {
+        String value = query.get(name);
+        if (value == null) return defaultValue;
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "'" + name + "' must be a date (YYYY-MM-DD)");
+        }
+    }
+
+    private static String required(Map<String, String> body, String field) throws ApiException {
+        String value = body.get(field);
+        if (value == null || value.isBlank()) throw new ApiException(400, "Missing '" + field + "'");
+        return value;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static Map<String, String> readJsonBody(HttpExchange exchange) throws IOException, ApiException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return parseFlatJson(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Parses a flat JSON object whose values are strings, numbers, booleans
+     * or null (all returned as strings; null values are left out). Nested
+     * objects and arrays are not needed by any endpoint and are rejected.
+     */
+    static Map<String, String> parseFlatJson(String text) throws ApiException {
+        Map<String, String> result = new HashMap<>();
+        int[] pos = {skipSpace(text, 0)};
+        expect(text, pos, '{');
+        if (peek(text, pos) == '}') {
+            pos[0]++;
+            return result;
+        }
+        while (true) {
+            String key = readString(text, pos);
+            expect(text, pos, ':');
+            String value;
+            if (peek(text, pos) == '"') {
+                value = readString(text, pos);
+            } else {
+                int start = pos[0];
+                while (pos[0] < text.length() && ",} \t\r\n".indexOf(text.charAt(pos[0])) < 0) pos[0]++;
+                value = text.substring(start, pos[0]);
+                if (value.isEmpty() || value.startsWith("{") || value.startsWith("[")) {
+                    throw new ApiException(400, "Unsupported JSON value for '" + key + "'");
+                }
+                if (value.equals("null")) value = null;
+            }
+            if (value != null) result.put(key, value);
+            char c = peek(text, pos);
+            pos[0]++;
+            if (c == '}') return result;
+            if (c != ',') throw new ApiException(400, "Malformed JSON body");
+        }
+    }
+
+    private static String readString(String text, int[] pos) throws ApiException {
+        expect(text, pos, '"');
+        StringBuilder sb = new StringBuilder();
+        while (pos[0] < text.length()) {
+            char c = text.charAt(pos[0]++);
+            if (c == '"') return sb.toString();
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            if (pos[0] >= text.length()) break;
+            char esc = text.charAt(pos[0]++);
+            switch (esc) {
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'u' -> {
+                    if (pos[0] + 4 > text.length()) throw new ApiException(400, "Malformed JSON body");
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos[0], pos[0] + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw new ApiException(400, "Malformed JSON body");
+                    }
+                    pos[0] += 4;
+                }
+                default -> sb.append(esc); // \" \\ \/
+            }
+        }
+        throw new ApiException(400, "Malformed JSON body");
+    }
+
+    private static void expect(String text, int[] pos, char expected) throws ApiException {
+        if (peek(text, pos) != expected) throw new ApiException(400, "Malformed JSON body");
+        pos[0] = skipSpace(text, pos[0] + 1);
+    }
+
+    private static char peek(String text, int[] pos) {
+        pos[0] = skipSpace(text, pos[0]);
+        return pos[0] < text.length() ? text.charAt(pos[0]) : 0;
+    }
+
+    private static int skipSpace(String text, int pos) {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        return pos;
+    }
+
+    private static String str(String value) {
+        return value == null ? "null" : "\"" + ReminderScheduler.jsonEscape(value) + "\"";
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            sendJson(exchange, status, "{\"error\":" + str(message) + "}");
+        } catch (IOException e) {
+            // Client went away; nothing to tell it
+        }
+    }
+}
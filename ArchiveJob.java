@@ -0,0 +1,82 @@
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ArchiveJob (Backend)
+ * Periodically moves past events and their signups out of the live tables
+ * and into the archive database. Work is done in small batches, each in its
+ * own short transaction, so the GUI is never locked out for long.
+ * It contains NO Swing code.
+ */
+public class ArchiveJob {
+
+    private static final int BATCH_SIZE = 500;
+    private static final long PAUSE_BETWEEN_BATCHES_MS = 50;
+    private static final long RUN_INTERVAL_HOURS = 24;
+
+    private final DatabaseManager dbManager;
+    private final ScheduledExecutorService scheduler;
+
+    public ArchiveJob(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "archive-job");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Schedules the job to run shortly after startup and then once a day.
+     */
+    public void start() {
+        // An exception escaping a scheduled task would silently cancel every later run
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                runOnce();
+            } catch (RuntimeException e) {
+                System.err.println("Archive run failed: " + e);
+            }
+        }, 1, RUN_INTERVAL_HOURS * 60, TimeUnit.MINUTES);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Finishes any merges still pending in the archive, then archives every
+     * event dated before today, one batch at a time, until a batch finds
+     * nothing left to move.
+     * @return the total number of events archived
+     */
+    public int runOnce() {
+        dbManager.finishArchiveMerges();
+        String cutoff = LocalDate.now().toString();
+        int total = 0;
+        while (true) {
+            DatabaseManager.ArchiveBatch batch = dbManager.archivePastEventsBatch(cutoff, BATCH_SIZE);
+            if (batch == null || batch.selected == 0) {
+                break;
+            }
+            total += batch.moved;
+            // Events edited mid-move stay live and are picked again; if a whole
+            // batch made no progress, leave them for the next run rather than spin
+            if (batch.moved == 0) {
+                break;
+            }
+            try {
+                Thread.sleep(PAUSE_BETWEEN_BATCHES_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (total > 0) {
+            System.out.println("Archived " + total + " past event(s).");
+        }
+        return total;
+    }
+}
@@ -1,7 +1,26 @@
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.core.DB;
 
 /**
  * DatabaseManager (Backend)
@@ -16,20 +35,178 @@ public class DatabaseManager {
     // in the same directory where the app is run.
     private static final String DATABASE_URL = "jdbc:sqlite:volunteer_hub.db";
 
+    // Past events and their signups are moved into a sibling file (e.g.
+    // 'volunteer_hub_archive.db') by the archiving job, so the live tables
+    // (and their indexes) only hold the active working set.
+    private static final String ARCHIVE_SUFFIX = "_archive.db";
+
+    // Wait this long for a lock instead of failing with "database is locked"
+    private static final int BUSY_TIMEOUT_MS = 5000;
+
+    // Event descriptions live in a side table; longer ones are stored deflated
+    private static final int DESCRIPTION_COMPRESS_THRESHOLD = 512;
+
+    // app_state key of the counter bumped by triggers on every event change
+    private static final String EVENTS_VERSION_KEY = "events.version";
+
+    private final String databaseUrl;
+    private final String archiveFile;
+
+    // Offline place-name lookup used to give events coordinates.
+    private static final String GAZETTEER_FILE = "gazetteer.csv";
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final Gazetteer gazetteer = new Gazetteer(GAZETTEER_FILE);
+
+    // Subsystems (e.g. the reminder scheduler) that mirror data in memory
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Notified after a change has been committed. All methods are optional.
+     * Listeners are called on the thread that made the change.
+     */
+    public interface ChangeListener {
+        default void eventDateChanged(String eventId, String newDate) {}
+        default void eventDeleted(String eventId) {}
+        default void seriesDeleted(String seriesId) {}
+        default void signupAdded(String volunteerId, String eventId) {}
+        default void signupRemoved(String volunteerId, String eventId) {}
+        default void volunteerSaved(String volunteerId, String name, String email) {}
+        default void volunteerMerged(String duplicateId, String keptId) {}
+    }
+
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    // The most recent failure on each thread, so callers that only see
+    // false/null (e.g. the stress harness) can tell what went wrong.
+    private static final ThreadLocal<Exception> lastError = new ThreadLocal<>();
+    private volatile boolean logErrors = true;
+
+    public DatabaseManager() {
+        this(DATABASE_URL);
+    }
+
+    /**
+     * @param databaseUrl a JDBC URL of the form "jdbc:sqlite:&lt;file&gt;"
+     */
+    public DatabaseManager(String databaseUrl) {
+        this.databaseUrl = databaseUrl;
+        String file = databaseUrl.substring(databaseUrl.indexOf(':', "jdbc:".length()) + 1);
+        this.archiveFile = (file.endsWith(".db") ? file.substring(0, file.length() - 3) : file) + ARCHIVE_SUFFIX;
+    }
+
+    /**
+     * Returns the exception behind the last failed call on this thread, or null.
+     */
+    public Exception getLastError() {
+        return lastError.get();
+    }
+
+    public void clearLastError() {
+        lastError.remove();
+    }
+
+    /**
+     * Turns printing of errors to stderr on or off (they are still recorded
+     * for getLastError()).
+     */
+    public void setLogErrors(boolean logErrors) {
+        this.logErrors = logErrors;
+    }
+
+    private void reportError(String context, Exception e) {
+        lastError.set(e);
+        if (logErrors) {
+            System.err.println(context + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Establishes a connection to the SQLite database.
+     * Every connection enforces foreign keys (so ON DELETE CASCADE works),
+     * uses WAL so readers don't block the writer, waits on busy locks, and
+     * starts transactions as IMMEDIATE so read-then-write transactions take
+     * the write lock up front instead of failing when they try to upgrade.
      * @return a Connection object
      */
-    private Connection connect() {
-        Connection conn = null;
-        try {
-            conn = DriverManager.getConnection(DATABASE_URL);
+    private Connection connect() throws SQLException {
+        Properties props = new Properties();
+        props.setProperty("foreign_keys", "true");
+        props.setProperty("journal_mode", "WAL");
+        props.setProperty("busy_timeout", Integer.toString(BUSY_TIMEOUT_MS));
+        props.setProperty("transaction_mode", "IMMEDIATE");
+        return DriverManager.getConnection(databaseUrl, props);
+    }
+
+    /**
+     * Establishes a connection with the archive database attached as 'archive'.
+     * The archive tables are created once, by createTables.
+     * @return a Connection object
+     */
+    private Connection connectWithArchive() throws SQLException {
+        Connection conn = connect();
+        try (Statement stmt = conn.createStatement()) {
+            attachArchive(stmt);
         } catch (SQLException e) {
-            System.err.println("Database connection failed: " + e.getMessage());
+            conn.close();
+            throw e;
         }
         return conn;
     }
 
+    private void attachArchive(Statement stmt) throws SQLException {
+        stmt.execute("ATTACH DATABASE '" + archiveFile.replace("'", "''") + "' AS archive");
+    }
+
+    /**
+     * Creates the archive tables, or brings an older archive up to date.
+     */
+    private void createArchiveTables(Statement stmt) throws SQLException {
+        attachArchive(stmt);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS archive.events (
+                id TEXT PRIMARY KEY,
+                title TEXT NOT NULL,
+                description TEXT,
+                event_date TEXT NOT NULL,
+                location TEXT NOT NULL
+            );
+            """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS archive.event_signups (
+                event_id TEXT NOT NULL,
+                volunteer_id TEXT NOT NULL,
+                PRIMARY KEY (event_id, volunteer_id)
+            );
+            """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS archive.event_descriptions (
+                event_id TEXT PRIMARY KEY,
+                compressed INTEGER NOT NULL DEFAULT 0,
+                body BLOB NOT NULL
+            );
+            """);
+        addColumnIfMissing(stmt, "archive", "events", "latitude", "REAL");
+        addColumnIfMissing(stmt, "archive", "events", "longitude", "REAL");
+        addColumnIfMissing(stmt, "archive", "events", "series_id", "TEXT");
+        addColumnIfMissing(stmt, "archive", "events", "capacity", "INTEGER");
+        addColumnIfMissing(stmt, "archive", "event_signups", "checked_in_at", "TEXT");
+        addColumnIfMissing(stmt, "archive", "event_signups", "checked_out_at", "TEXT");
+        addColumnIfMissing(stmt, "archive", "event_signups", "hours", "REAL");
+        addColumnIfMissing(stmt, "archive", "event_signups", "hours_month", "TEXT");
+        addColumnIfMissing(stmt, "archive", "event_signups", "hours_location", "TEXT");
+        stmt.execute("CREATE INDEX IF NOT EXISTS archive.idx_events_date ON events (event_date)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS archive.idx_signups_volunteer ON event_signups (volunteer_id)");
+        stmt.execute("DETACH DATABASE archive");
+    }
+
     /**
      * Creates all necessary tables if they don't already exist.
      */
@@ -63,11 +240,337 @@ public class DatabaseManager {
 
         try (Connection conn = connect();
              Statement stmt = conn.createStatement()) {
+            enableIncrementalVacuumIfEmpty(stmt);
             stmt.execute(sqlVolunteers);
             stmt.execute(sqlEvents);
             stmt.execute(sqlSignups);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_events_date ON events (event_date)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_signups_volunteer ON event_signups (volunteer_id)");
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_volunteers_email_norm ON volunteers (lower(trim(email)))");
+            createSignupCounters(stmt);
+            createAttendanceTables(stmt);
+            createSpatialIndex(stmt);
+            createSeriesTables(stmt);
+            createDescriptionTable(stmt);
+            createWaitlistTable(stmt);
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS app_state (
+                    key TEXT PRIMARY KEY,
+                    value TEXT
+                );
+                """);
+            // Merges whose archived signups still have to be moved (see finishArchiveMerges)
+            stmt.execute("""
+                CREATE TABLE IF NOT EXISTS pending_archive_merges (
+                    seq INTEGER PRIMARY KEY,
+                    kept_id TEXT NOT NULL,
+                    duplicate_id TEXT NOT NULL
+                );
+                """);
+            createVersionTriggers(stmt);
+            createArchiveTables(stmt);
+        } catch (SQLException e) {
+            reportError("Error creating tables", e);
+        }
+    }
+
+    /**
+     * Starts a new database file with auto_vacuum = INCREMENTAL, so free pages
+     * can be released in small steps without ever running a full VACUUM. The
+     * mode only takes effect through a VACUUM, which is instant on an empty file.
+     */
+    private void enableIncrementalVacuumIfEmpty(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM sqlite_master LIMIT 1")) {
+            if (rs.next()) return;
+        }
+        stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+        stmt.execute("VACUUM");
+    }
+
+    /**
+     * Adds a column to an existing table if an older database doesn't have it yet.
+     */
+    private boolean addColumnIfMissing(Statement stmt, String schema, String table, String column, String type)
+            throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA " + schema + ".table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return false;
+                }
+            }
+        }
+        stmt.execute("ALTER TABLE " + schema + "." + table + " ADD COLUMN " + column + " " + type);
+        return true;
+    }
+
+    /**
+     * Adds attendance columns to event_signups and creates the hour rollup
+     * tables. The rollups are updated in the same transaction as each
+     * check-out, so reports never have to rescan event_signups. Each signup
+     * remembers the month and location its hours were credited to, so a
+     * correction debits that bucket even if the event has since moved.
+     */
+    private void createAttendanceTables(Statement stmt) throws SQLException {
+        addColumnIfMissing(stmt, "main", "event_signups", "checked_in_at", "TEXT");
+        addColumnIfMissing(stmt, "main", "event_signups", "checked_out_at", "TEXT");
+        addColumnIfMissing(stmt, "main", "event_signups", "hours", "REAL");
+        boolean bucketsAdded = addColumnIfMissing(stmt, "main", "event_signups", "hours_month", "TEXT");
+        addColumnIfMissing(stmt, "main", "event_signups", "hours_location", "TEXT");
+        if (bucketsAdded) {
+            // Hours recorded before the columns existed were credited to the event's current bucket
+            stmt.executeUpdate("""
+                UPDATE event_signups SET hours_month = substr(e.event_date, 1, 7), hours_location = e.location
+                FROM events AS e
+                WHERE e.id = event_signups.event_id AND event_signups.hours IS NOT NULL
+                """);
+        }
+
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS volunteer_hours (
+                volunteer_id TEXT PRIMARY KEY,
+                total_hours REAL NOT NULL DEFAULT 0,
+                shifts INTEGER NOT NULL DEFAULT 0
+            );
+            """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_volunteer_hours_total ON volunteer_hours (total_hours DESC)");
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS volunteer_hours_monthly (
+                volunteer_id TEXT NOT NULL,
+                month TEXT NOT NULL,
+                hours REAL NOT NULL DEFAULT 0,
+                PRIMARY KEY (volunteer_id, month)
+            );
+            """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS location_hours (
+                location TEXT PRIMARY KEY,
+                total_hours REAL NOT NULL DEFAULT 0,
+                shifts INTEGER NOT NULL DEFAULT 0
+            );
+            """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_location_hours_total ON location_hours (total_hours DESC)");
+    }
+
+    /**
+     * Creates the per-event signup counter table and the triggers that keep it
+     * current, so a signup count is a single key lookup instead of a COUNT(*).
+     * Existing signups are counted once, when the table is first created.
+     */
+    private void createSignupCounters(Statement stmt) throws SQLException {
+        boolean exists;
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = 'event_signup_counts'")) {
+            exists = rs.next();
+        }
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS event_signup_counts (
+                event_id TEXT PRIMARY KEY,
+                signup_count INTEGER NOT NULL DEFAULT 0
+            );
+            """);
+        stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_signup_count_insert AFTER INSERT ON event_signups
+            BEGIN
+                INSERT OR IGNORE INTO event_signup_counts (event_id, signup_count) VALUES (NEW.event_id, 0);
+                UPDATE event_signup_counts SET signup_count = signup_count + 1 WHERE event_id = NEW.event_id;
+            END;
+            """);
+        stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_signup_count_delete AFTER DELETE ON event_signups
+            BEGIN
+                UPDATE event_signup_counts SET signup_count = signup_count - 1 WHERE event_id = OLD.event_id;
+            END;
+            """);
+        stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_signup_count_event_delete AFTER DELETE ON events
+            BEGIN
+                DELETE FROM event_signup_counts WHERE event_id = OLD.id;
+            END;
+            """);
+        if (!exists) {
+            stmt.executeUpdate("""
+                INSERT OR REPLACE INTO event_signup_counts (event_id, signup_count)
+                SELECT event_id, COUNT(*) FROM event_signups GROUP BY event_id
+                """);
+        }
+    }
+
+    /**
+     * Adds coordinates to events and creates the R*Tree index over them.
+     * Each event gets a stable integer geo_id, which is the R*Tree row ID;
+     * triggers keep the R*Tree in step with every insert, update and delete.
+     * When the columns are first added, existing events are geocoded once.
+     */
+    private void createSpatialIndex(Statement stmt) throws SQLException {
+        boolean migrated = addColumnIfMissing(stmt, "main", "events", "latitude", "REAL");
+        addColumnIfMissing(stmt, "main", "events", "longitude", "REAL");
+        addColumnIfMissing(stmt, "main", "events", "geo_id", "INTEGER");
+        stmt.execute("CREATE UNIQUE INDEX IF NOT EXISTS idx_events_geo ON events (geo_id)");
+        stmt.execute("""
+            CREATE VIRTUAL TABLE IF NOT EXISTS event_geo USING rtree (
+                id, min_lat, max_lat, min_lon, max_lon
+            );
+            """);
+        stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_event_geo_insert AFTER INSERT ON events
+            WHEN NEW.latitude IS NOT NULL AND NEW.longitude IS NOT NULL
+            BEGIN
+                INSERT INTO event_geo VALUES (NEW.geo_id, NEW.latitude, NEW.latitude, NEW.longitude, NEW.longitude);
+            END;
+            """);
+        stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_event_geo_update AFTER UPDATE OF latitude, longitude, geo_id ON events
+            BEGIN
+                DELETE FROM event_geo WHERE id = OLD.geo_id;
+                INSERT INTO event_geo
+                SELECT NEW.geo_id, NEW.latitude, NEW.latitude, NEW.longitude, NEW.longitude
+                WHERE NEW.latitude IS NOT NULL AND NEW.longitude IS NOT NULL;
+            END;
+            """);
+        stmt.execute("""
+            CREATE TRIGGER IF NOT EXISTS trg_event_geo_delete AFTER DELETE ON events
+            BEGIN
+                DELETE FROM event_geo WHERE id = OLD.geo_id;
+            END;
+            """);
+
+        if (migrated) {
+            stmt.executeUpdate("UPDATE events SET geo_id = rowid WHERE geo_id IS NULL");
+            List<String[]> toGeocode = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery("SELECT id, location FROM events")) {
+                while (rs.next()) {
+                    toGeocode.add(new String[]{rs.getString("id"), rs.getString("location")});
+                }
+            }
+            try (PreparedStatement pstmt = stmt.getConnection().prepareStatement(
+                    "UPDATE events SET latitude = ?, longitude = ? WHERE id = ?")) {
+                for (String[] event : toGeocode) {
+                    double[] coords = gazetteer.resolve(event[1]);
+                    if (coords == null) continue;
+                    pstmt.setDouble(1, coords[0]);
+                    pstmt.setDouble(2, coords[1]);
+                    pstmt.setString(3, event[0]);
+                    pstmt.executeUpdate();
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the tables for recurring event series. A series is stored once
+     * as a rule; its occurrences only become rows in 'events' (with series_id
+     * set) when someone signs up for or edits one of them.
+     */
+    private void createSeriesTables(Statement stmt) throws SQLException {
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS event_series (
+                id TEXT PRIMARY KEY,
+                title TEXT NOT NULL,
+                description TEXT,
+                location TEXT NOT NULL,
+                start_date TEXT NOT NULL,
+                until_date TEXT,
+                frequency TEXT NOT NULL CHECK (frequency IN ('DAILY','WEEKLY','MONTHLY')),
+                interval_count INTEGER NOT NULL DEFAULT 1,
+                latitude REAL,
+                longitude REAL
+            );
+            """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_series_start ON event_series (start_date)");
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS event_series_exceptions (
+                series_id TEXT NOT NULL,
+                occurrence_date TEXT NOT NULL,
+                PRIMARY KEY (series_id, occurrence_date),
+                FOREIGN KEY (series_id) REFERENCES event_series (id) ON DELETE CASCADE
+            );
+            """);
+        addColumnIfMissing(stmt, "main", "events", "series_id", "TEXT");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_events_series ON events (series_id)");
+    }
+
+    /**
+     * Creates the side table holding event descriptions, so list queries on
+     * 'events' never read them. Descriptions still stored in 'events' are
+     * moved into it and cleared from 'events'.
+     */
+    private void createDescriptionTable(Statement stmt) throws SQLException {
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS event_descriptions (
+                event_id TEXT PRIMARY KEY,
+                compressed INTEGER NOT NULL DEFAULT 0,
+                body BLOB NOT NULL,
+                FOREIGN KEY (event_id) REFERENCES events (id) ON DELETE CASCADE
+            );
+            """);
+
+        // Any description still in events has not been moved yet. Moving and clearing
+        // happen in one transaction, so an interrupted migration simply runs again.
+        try (ResultSet rs = stmt.executeQuery("SELECT 1 FROM events WHERE description IS NOT NULL LIMIT 1")) {
+            if (!rs.next()) return;
+        }
+        Connection conn = stmt.getConnection();
+        conn.setAutoCommit(false);
+        try {
+            List<String[]> toMove = new ArrayList<>();
+            // A row already in event_descriptions was saved later than the inline copy
+            try (ResultSet rs = stmt.executeQuery("SELECT id, description FROM events WHERE description IS NOT NULL "
+                    + "AND id NOT IN (SELECT event_id FROM event_descriptions)")) {
+                while (rs.next()) {
+                    toMove.add(new String[]{rs.getString("id"), rs.getString("description")});
+                }
+            }
+            for (String[] event : toMove) {
+                saveDescription(conn, event[0], event[1]);
+            }
+            stmt.executeUpdate("UPDATE events SET description = NULL WHERE description IS NOT NULL");
+            conn.commit();
         } catch (SQLException e) {
-            System.err.println("Error creating tables: " + e.getMessage());
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Adds event capacity and creates the waitlist queue. The index on
+     * (event_id, priority DESC, seq) keeps each event's queue in promotion
+     * order, so finding the next volunteer is a single index seek.
+     */
+    private void createWaitlistTable(Statement stmt) throws SQLException {
+        addColumnIfMissing(stmt, "main", "events", "capacity", "INTEGER"); // NULL = unlimited
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS event_waitlist (
+                seq INTEGER PRIMARY KEY AUTOINCREMENT,
+                event_id TEXT NOT NULL,
+                volunteer_id TEXT NOT NULL,
+                priority INTEGER NOT NULL DEFAULT 0,
+                joined_at TEXT NOT NULL,
+                UNIQUE (event_id, volunteer_id),
+                FOREIGN KEY (event_id) REFERENCES events (id) ON DELETE CASCADE,
+                FOREIGN KEY (volunteer_id) REFERENCES volunteers (id) ON DELETE CASCADE
+            );
+            """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_waitlist_order ON event_waitlist (event_id, priority DESC, seq)");
+        stmt.execute("CREATE INDEX IF NOT EXISTS idx_waitlist_volunteer ON event_waitlist (volunteer_id)");
+    }
+
+    /**
+     * Creates the triggers that bump the events version in app_state on
+     * every change to events, series or series exceptions.
+     */
+    private void createVersionTriggers(Statement stmt) throws SQLException {
+        String[] tables = {"events", "event_series", "event_series_exceptions"};
+        for (String table : tables) {
+            for (String op : new String[]{"INSERT", "UPDATE", "DELETE"}) {
+                stmt.execute("CREATE TRIGGER IF NOT EXISTS trg_version_" + table + "_" + op.toLowerCase()
+                    + " AFTER " + op + " ON " + table + "\n"
+                    + "BEGIN\n"
+                    + "    INSERT INTO app_state (key, value) VALUES ('" + EVENTS_VERSION_KEY + "', 1)\n"
+                    + "    ON CONFLICT (key) DO UPDATE SET value = value + 1;\n"
+                    + "END;");
+            }
         }
     }
 
@@ -79,14 +582,139 @@ public class DatabaseManager {
         }
     }
     
+    // 'description' is only filled in by getEventDescription(); list and
+    // single-event queries leave it null.
     public static class Event {
         public String id, title, description, date, location;
+        public Double latitude, longitude; // null when the location is not in the gazetteer
+        public Double distanceKm; // only set by findEventsNear()
+        public String seriesId; // set when this is an occurrence of a recurring series
+        public Integer capacity; // only set by getEvent(); null means unlimited
         public Event(String id, String title, String description, String date, String location) {
             this.id = id; this.title = title; this.description = description; 
             this.date = date; this.location = location;
         }
     }
 
+    /**
+     * A recurring event: one rule instead of one row per occurrence.
+     * Occurrence IDs are the series ID and the date joined by '@',
+     * e.g. "s-1a2b3c4d@2026-11-05".
+     */
+    public static class EventSeries {
+        public static final String DAILY = "DAILY", WEEKLY = "WEEKLY", MONTHLY = "MONTHLY";
+
+        public String id, title, description, location, startDate, untilDate, frequency;
+        public int interval;
+        public Double latitude, longitude;
+        public EventSeries(String id, String title, String description, String location,
+                           String startDate, String untilDate, String frequency, int interval) {
+            this.id = id; this.title = title; this.description = description; this.location = location;
+            this.startDate = startDate; this.untilDate = untilDate;
+            this.frequency = frequency; this.interval = Math.max(1, interval);
+        }
+
+        public static boolean isValidFrequency(String frequency) {
+            return DAILY.equals(frequency) || WEEKLY.equals(frequency) || MONTHLY.equals(frequency);
+        }
+
+        /**
+         * Lists occurrence dates in [from, to]. The first occurrence in the
+         * window is computed directly, so the cost depends only on how many
+         * occurrences fall inside the window, not on how long the series is.
+         */
+        public List<LocalDate> occurrencesBetween(LocalDate from, LocalDate to) {
+            return occurrencesBetween(from, to, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Lists at most maxCount occurrence dates in [from, to], earliest first.
+         * A rule with an unknown frequency (possible only in rows written
+         * before the CHECK constraint) has no occurrences.
+         */
+        public List<LocalDate> occurrencesBetween(LocalDate from, LocalDate to, int maxCount) {
+            List<LocalDate> dates = new ArrayList<>();
+            LocalDate start = LocalDate.parse(startDate);
+            LocalDate end = (untilDate != null && !untilDate.isEmpty()) ? LocalDate.parse(untilDate) : null;
+            if (end != null && end.isBefore(to)) to = end;
+            if (from.isBefore(start)) from = start;
+            if (to.isBefore(from)) return dates;
+
+            if (MONTHLY.equals(frequency)) {
+                long n = ChronoUnit.MONTHS.between(start, from) / interval;
+                LocalDate date = start.plusMonths(n * interval);
+                while (date.isBefore(from)) {
+                    date = start.plusMonths(++n * interval);
+                }
+                while (!date.isAfter(to) && dates.size() < maxCount) {
+                    dates.add(date);
+                    date = start.plusMonths(++n * interval);
+                }
+            } else if (DAILY.equals(frequency) || WEEKLY.equals(frequency)) {
+                long step = WEEKLY.equals(frequency) ? 7L * interval : interval;
+                long n = (ChronoUnit.DAYS.between(start, from) + step - 1) / step;
+                for (LocalDate date = start.plusDays(n * step);
+                     !date.isAfter(to) && dates.size() < maxCount; date = date.plusDays(step)) {
+                    dates.add(date);
+                }
+            }
+            return dates;
+        }
+
+        public boolean isOccurrence(LocalDate date) {
+            return occurrencesBetween(date, date).size() == 1;
+        }
+
+        Event toOccurrence(LocalDate date) {
+            Event event = new Event(id + "@" + date, title, null, date.toString(), location);
+            event.latitude = latitude;
+            event.longitude = longitude;
+            event.seriesId = id;
+            return event;
+        }
+    }
+
+    /** Outcome of joinEvent(). */
+    public enum SignupResult {
+        SIGNED_UP,      // Got a place
+        WAITLISTED,     // Event is full; added to its waitlist
+        ALREADY_JOINED, // Already signed up or waitlisted
+        FAILED
+    }
+
+    public static class UpcomingSignup {
+        public String eventId, volunteerId, eventDate, eventTitle, volunteerEmail;
+        public UpcomingSignup(String eventId, String volunteerId, String eventDate, String eventTitle, String volunteerEmail) {
+            this.eventId = eventId; this.volunteerId = volunteerId; this.eventDate = eventDate;
+            this.eventTitle = eventTitle; this.volunteerEmail = volunteerEmail;
+        }
+    }
+
+    public static class RosterEntry {
+        public String volunteerId, name, email, checkedInAt;
+        public Double hours; // null until the volunteer checks out
+        public RosterEntry(String volunteerId, String name, String email, String checkedInAt, Double hours) {
+            this.volunteerId = volunteerId; this.name = name; this.email = email;
+            this.checkedInAt = checkedInAt; this.hours = hours;
+        }
+    }
+
+    public static class HoursTotal {
+        public String key, label; // e.g. volunteer ID and name, or month, or location
+        public double hours;
+        public HoursTotal(String key, String label, double hours) {
+            this.key = key; this.label = label; this.hours = hours;
+        }
+    }
+
+    public static class ArchiveBatch {
+        public int selected; // events dated before the cutoff picked for this batch
+        public int moved;    // of those, the ones now only in the archive
+        public ArchiveBatch(int selected, int moved) {
+            this.selected = selected; this.moved = moved;
+        }
+    }
+
     // --- Volunteer Methods ---
 
     public String registerVolunteer(String name, String email, String skills) {
@@ -100,9 +728,12 @@ public class DatabaseManager {
             pstmt.setString(3, email);
             pstmt.setString(4, skills);
             pstmt.executeUpdate();
+            for (ChangeListener listener : changeListeners) {
+                listener.volunteerSaved(newId, name, email);
+            }
             return newId;
         } catch (SQLException e) {
-            System.err.println("Error registering volunteer: " + e.getMessage());
+            reportError("Error registering volunteer", e);
             return null; // Email might be duplicate
         }
     }
@@ -116,10 +747,14 @@ public class DatabaseManager {
             pstmt.setString(2, email);
             pstmt.setString(3, skills);
             pstmt.setString(4, id);
-            pstmt.executeUpdate();
+            if (pstmt.executeUpdate() == 1) {
+                for (ChangeListener listener : changeListeners) {
+                    listener.volunteerSaved(id, name, email);
+                }
+            }
             return true;
         } catch (SQLException e) {
-            System.err.println("Error updating volunteer: " + e.getMessage());
+            reportError("Error updating volunteer", e);
             return false;
         }
     }
@@ -141,140 +776,2084 @@ public class DatabaseManager {
                 );
             }
         } catch (SQLException e) {
-            System.err.println("Error getting volunteer: " + e.getMessage());
+            reportError("Error getting volunteer", e);
         }
         return null;
     }
 
-    // --- Event Methods ---
-
-    public boolean createEvent(String title, String description, String date, String location) {
-        String newId = "e-" + UUID.randomUUID().toString().substring(0, 8);
-        String sql = "INSERT INTO events(id, title, description, event_date, location) VALUES(?,?,?,?,?)";
+    /**
+     * Looks a volunteer up by email, ignoring case and surrounding spaces.
+     * Served by the expression index on lower(trim(email)).
+     */
+    public Volunteer getVolunteerByEmail(String email) {
+        String sql = "SELECT * FROM volunteers WHERE lower(trim(email)) = lower(trim(?)) ORDER BY id LIMIT 1";
         
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, newId);
-            pstmt.setString(2, title);
-            pstmt.setString(3, description);
-            pstmt.setString(4, date);
-            pstmt.setString(5, location);
-            pstmt.executeUpdate();
-            return true;
+            pstmt.setString(1, email);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return new Volunteer(
+                    rs.getString("id"),
+                    rs.getString("name"),
+                    rs.getString("email"),
+                    rs.getString("skills")
+                );
+            }
         } catch (SQLException e) {
-            System.err.println("Error creating event: " + e.getMessage());
-            return false;
+            reportError("Error getting volunteer by email", e);
         }
+        return null;
     }
 
-    public boolean updateEvent(String id, String title, String description, String date, String location) {
-        String sql = "UPDATE events SET title = ?, description = ?, event_date = ?, location = ? WHERE id = ?";
+    /**
+     * Returns volunteers in ID order, one page at a time, for jobs that walk
+     * the whole table without holding it all in memory.
+     * @param afterId the last ID of the previous page, or null for the first page
+     */
+    public List<Volunteer> getVolunteersPage(String afterId, int limit) {
+        List<Volunteer> volunteers = new ArrayList<>();
+        String sql = "SELECT * FROM volunteers WHERE id > ? ORDER BY id LIMIT ?";
         
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, title);
-            pstmt.setString(2, description);
-            pstmt.setString(3, date);
-            pstmt.setString(4, location);
-            pstmt.setString(5, id);
-            pstmt.executeUpdate();
-            return true;
+            pstmt.setString(1, afterId != null ? afterId : "");
+            pstmt.setInt(2, limit);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                volunteers.add(new Volunteer(
+                    rs.getString("id"),
+                    rs.getString("name"),
+                    rs.getString("email"),
+                    rs.getString("skills")
+                ));
+            }
         } catch (SQLException e) {
-            System.err.println("Error updating event: " + e.getMessage());
-            return false;
+            reportError("Error getting volunteers", e);
         }
+        return volunteers;
     }
 
-    public boolean deleteEvent(String id) {
-        // ON DELETE CASCADE will also remove signups
-        String sql = "DELETE FROM events WHERE id = ?";
-        
-        try (Connection conn = connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, id);
-            pstmt.executeUpdate();
-            return true;
+    /**
+     * Merges duplicate volunteer records. For each {keptId, duplicateId} pair
+     * the duplicate's signups (live and archived), waitlist places and hour
+     * totals are moved to the kept volunteer, and the duplicate is deleted.
+     * Where both were signed up for the same event, the kept signup stays;
+     * attendance it lacks is taken from the duplicate, and hours that are
+     * dropped are taken back out of the rollups.
+     * Pairs whose volunteers no longer both exist are skipped.
+     *
+     * Everything in the live database happens in one transaction, which also
+     * records the pairs in pending_archive_merges. The archived signups are
+     * moved afterwards by finishArchiveMerges(), in a transaction of their
+     * own (see archivePastEventsBatch for why the two files are never
+     * written in one transaction).
+     * @return the number of duplicates merged, or -1 on error
+     */
+    public int mergeVolunteers(List<String[]> pairs) {
+        // The dropped-hours check below reads the archive, so earlier merges must be finished there first
+        if (!finishArchiveMerges()) {
+            return -1;
+        }
+        String[] schemas = {"main", "archive"};
+        List<String[]> merged = new ArrayList<>();
+        List<String[]> promoted = new ArrayList<>(); // {volunteerId, eventId}
+
+        try (Connection conn = connectWithArchive();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                CREATE TEMP TABLE IF NOT EXISTS merge_dropped (
+                    event_id TEXT, location TEXT, month TEXT, hours REAL
+                )
+                """);
+            conn.setAutoCommit(false);
+            try {
+                for (String[] pair : pairs) {
+                    String keptId = pair[0], duplicateId = pair[1];
+                    if (keptId.equals(duplicateId) || !volunteerExists(conn, keptId) || !volunteerExists(conn, duplicateId)) {
+                        continue;
+                    }
+                    stmt.execute("DELETE FROM temp.merge_dropped");
+                    List<String> sharedEvents = new ArrayList<>();
+
+                    for (String schema : schemas) {
+                        // Hours on duplicate signups for events the kept volunteer also worked
+                        // (the archived ones are dropped later, by finishArchiveMerges)
+                        executeUpdate(conn, "INSERT INTO temp.merge_dropped "
+                            + "SELECT d.event_id, COALESCE(d.hours_location, e.location), "
+                            + "COALESCE(d.hours_month, substr(e.event_date, 1, 7)), d.hours "
+                            + "FROM " + schema + ".event_signups d "
+                            + "JOIN " + schema + ".event_signups k ON k.event_id = d.event_id AND k.volunteer_id = ? "
+                            + "JOIN " + schema + ".events e ON e.id = d.event_id "
+                            + "WHERE d.volunteer_id = ? AND d.hours IS NOT NULL AND k.hours IS NOT NULL",
+                            keptId, duplicateId);
+                    }
+                    try (PreparedStatement pstmt = conn.prepareStatement(
+                            "SELECT d.event_id FROM main.event_signups d JOIN main.event_signups k "
+                                + "ON k.event_id = d.event_id AND k.volunteer_id = ? WHERE d.volunteer_id = ?")) {
+                        pstmt.setString(1, keptId);
+                        pstmt.setString(2, duplicateId);
+                        ResultSet rs = pstmt.executeQuery();
+                        while (rs.next()) sharedEvents.add(rs.getString("event_id"));
+                    }
+                    moveSignups(conn, "main", keptId, duplicateId);
+                    executeUpdate(conn, "INSERT INTO pending_archive_merges (kept_id, duplicate_id) VALUES (?, ?)",
+                        keptId, duplicateId);
+
+                    // Waitlist places keep their position; drop any for events now signed up for
+                    executeUpdate(conn, "UPDATE OR IGNORE event_waitlist SET volunteer_id = ? WHERE volunteer_id = ?",
+                        keptId, duplicateId);
+                    executeUpdate(conn, "DELETE FROM event_waitlist WHERE volunteer_id = ?", duplicateId);
+                    executeUpdate(conn, "DELETE FROM event_waitlist WHERE volunteer_id = ? "
+                        + "AND event_id IN (SELECT event_id FROM event_signups WHERE volunteer_id = ?)", keptId, keptId);
+
+                    // Hour rollups: add the duplicate's totals, then take back the dropped hours
+                    executeUpdate(conn, """
+                        INSERT INTO volunteer_hours (volunteer_id, total_hours, shifts)
+                        SELECT ?, total_hours, shifts FROM volunteer_hours WHERE volunteer_id = ?
+                        ON CONFLICT (volunteer_id) DO UPDATE SET
+                            total_hours = total_hours + excluded.total_hours, shifts = shifts + excluded.shifts
+                        """, keptId, duplicateId);
+                    executeUpdate(conn, """
+                        INSERT INTO volunteer_hours_monthly (volunteer_id, month, hours)
+                        SELECT ?, month, hours FROM volunteer_hours_monthly WHERE volunteer_id = ?
+                        ON CONFLICT (volunteer_id, month) DO UPDATE SET hours = hours + excluded.hours
+                        """, keptId, duplicateId);
+                    executeUpdate(conn, "DELETE FROM volunteer_hours WHERE volunteer_id = ?", duplicateId);
+                    executeUpdate(conn, "DELETE FROM volunteer_hours_monthly WHERE volunteer_id = ?", duplicateId);
+                    executeUpdate(conn, """
+                        UPDATE volunteer_hours SET
+                            total_hours = total_hours - (SELECT IFNULL(SUM(hours), 0) FROM temp.merge_dropped),
+                            shifts = shifts - (SELECT COUNT(*) FROM temp.merge_dropped)
+                        WHERE volunteer_id = ?
+                        """, keptId);
+                    executeUpdate(conn, """
+                        UPDATE volunteer_hours_monthly SET hours = hours - x.dropped_hours
+                        FROM (SELECT month AS dropped_month, SUM(hours) AS dropped_hours
+                              FROM temp.merge_dropped GROUP BY month) AS x
+                        WHERE volunteer_hours_monthly.volunteer_id = ? AND volunteer_hours_monthly.month = x.dropped_month
+                        """, keptId);
+                    stmt.executeUpdate("""
+                        UPDATE location_hours SET
+                            total_hours = total_hours - x.dropped_hours, shifts = shifts - x.dropped_shifts
+                        FROM (SELECT location AS dropped_location, SUM(hours) AS dropped_hours, COUNT(*) AS dropped_shifts
+                              FROM temp.merge_dropped GROUP BY location) AS x
+                        WHERE location_hours.location = x.dropped_location
+                        """);
+
+                    executeUpdate(conn, "UPDATE volunteers SET skills = (SELECT skills FROM volunteers WHERE id = ?) "
+                        + "WHERE id = ? AND IFNULL(skills, '') = ''", duplicateId, keptId);
+                    executeUpdate(conn, "DELETE FROM volunteers WHERE id = ?", duplicateId);
+
+                    // Each shared event lost a signup, which may free a place for the waitlist
+                    for (String eventId : sharedEvents) {
+                        for (String volunteerId : promoteFromWaitlist(conn, eventId)) {
+                            promoted.add(new String[]{volunteerId, eventId});
+                        }
+                    }
+                    merged.add(pair);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
         } catch (SQLException e) {
-            System.err.println("Error deleting event: " + e.getMessage());
-            return false;
+            reportError("Error merging volunteers", e);
+            return -1;
+        }
+        // If this fails the pairs stay pending and are retried by the next merge or archive run
+        finishArchiveMerges();
+
+        for (ChangeListener listener : changeListeners) {
+            for (String[] pair : merged) {
+                listener.volunteerMerged(pair[1], pair[0]);
+            }
+            for (String[] signup : promoted) {
+                listener.signupAdded(signup[0], signup[1]);
+            }
         }
+        return merged.size();
     }
 
-    public List<Event> getAllEvents() {
-        List<Event> events = new ArrayList<>();
-        String sql = "SELECT * FROM events ORDER BY event_date";
-        
-        try (Connection conn = connect();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                events.add(new Event(
-                    rs.getString("id"),
-                    rs.getString("title"),
-                    rs.getString("description"),
-                    rs.getString("event_date"),
-                    rs.getString("location")
-                ));
+    /**
+     * Moves the archived signups of merges recorded in pending_archive_merges,
+     * in one transaction on the archive, then clears those entries. Moving a
+     * duplicate's signups is idempotent, so a crash between the two steps
+     * only repeats work that finds nothing left to move.
+     * @return true if no merges are left pending
+     */
+    public boolean finishArchiveMerges() {
+        List<String[]> pending = new ArrayList<>(); // {keptId, duplicateId}
+        long lastSeq = 0;
+        try (Connection conn = connectWithArchive()) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT seq, kept_id, duplicate_id FROM main.pending_archive_merges ORDER BY seq")) {
+                while (rs.next()) {
+                    pending.add(new String[]{rs.getString("kept_id"), rs.getString("duplicate_id")});
+                    lastSeq = rs.getLong("seq");
+                }
             }
+            if (pending.isEmpty()) {
+                return true;
+            }
+
+            conn.setAutoCommit(false);
+            try {
+                for (String[] pair : pending) {
+                    moveSignups(conn, "archive", pair[0], pair[1]);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM main.pending_archive_merges WHERE seq <= ?")) {
+                pstmt.setLong(1, lastSeq);
+                pstmt.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+            return true;
         } catch (SQLException e) {
-            System.err.println("Error getting all events: " + e.getMessage());
+            reportError("Error finishing archived merges", e);
+            return false;
         }
-        return events;
     }
-    
+
+    /**
+     * Gives the duplicate's signups in one schema to the kept volunteer. Where
+     * both signed up for the same event, the kept signup stays and takes any
+     * attendance it lacks from the duplicate's.
+     */
+    private static void moveSignups(Connection conn, String schema, String keptId, String duplicateId) throws SQLException {
+        executeUpdate(conn, "UPDATE " + schema + ".event_signups AS k SET "
+            + "checked_in_at = COALESCE(k.checked_in_at, d.checked_in_at), "
+            + "checked_out_at = COALESCE(k.checked_out_at, d.checked_out_at), "
+            + "hours_month = CASE WHEN k.hours IS NULL THEN d.hours_month ELSE k.hours_month END, "
+            + "hours_location = CASE WHEN k.hours IS NULL THEN d.hours_location ELSE k.hours_location END, "
+            + "hours = COALESCE(k.hours, d.hours) "
+            + "FROM " + schema + ".event_signups AS d "
+            + "WHERE k.volunteer_id = ? AND d.volunteer_id = ? AND d.event_id = k.event_id",
+            keptId, duplicateId);
+        executeUpdate(conn, "UPDATE OR IGNORE " + schema + ".event_signups SET volunteer_id = ? WHERE volunteer_id = ?",
+            keptId, duplicateId);
+        executeUpdate(conn, "DELETE FROM " + schema + ".event_signups WHERE volunteer_id = ?", duplicateId);
+    }
+
+    private boolean volunteerExists(Connection conn, String id) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM volunteers WHERE id = ?")) {
+            pstmt.setString(1, id);
+            return pstmt.executeQuery().next();
+        }
+    }
+
+    private static int executeUpdate(Connection conn, String sql, String... params) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setString(i + 1, params[i]);
+            }
+            return pstmt.executeUpdate();
+        }
+    }
+
+    // --- Event Methods ---
+
+    public boolean createEvent(String title, String description, String date, String location) {
+        return createEvent(title, description, date, location, null);
+    }
+
+    /**
+     * @param capacity maximum number of signups, or null for unlimited
+     */
+    public boolean createEvent(String title, String description, String date, String location, Integer capacity) {
+        String newId = "e-" + UUID.randomUUID().toString().substring(0, 8);
+        String sql = "INSERT INTO events(id, title, event_date, location, latitude, longitude, capacity, geo_id) "
+            + "VALUES(?,?,?,?,?,?,?,(SELECT IFNULL(MAX(geo_id), 0) + 1 FROM events))";
+        double[] coords = gazetteer.resolve(location);
+        
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                pstmt.setString(1, newId);
+                pstmt.setString(2, title);
+                pstmt.setString(3, date);
+                pstmt.setString(4, location);
+                pstmt.setObject(5, coords != null ? coords[0] : null);
+                pstmt.setObject(6, coords != null ? coords[1] : null);
+                pstmt.setObject(7, capacity);
+                pstmt.executeUpdate();
+                saveDescription(conn, newId, description);
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            reportError("Error creating event", e);
+            return false;
+        }
+    }
+
+    /**
+     * Updates an event, leaving its capacity unchanged.
+     */
+    public boolean updateEvent(String id, String title, String description, String date, String location) {
+        return updateEvent(id, title, description, date, location, false, null);
+    }
+
+    /**
+     * Updates an event including its capacity (null for unlimited). If the
+     * capacity grows, waitlisted volunteers are promoted into the new places.
+     */
+    public boolean updateEvent(String id, String title, String description, String date, String location,
+                               Integer capacity) {
+        return updateEvent(id, title, description, date, location, true, capacity);
+    }
+
+    private boolean updateEvent(String id, String title, String description, String date, String location,
+                                boolean setCapacity, Integer capacity) {
+        String sql = "UPDATE events SET title = ?, event_date = ?, location = ?, "
+            + "latitude = ?, longitude = ?, geo_id = COALESCE(geo_id, (SELECT IFNULL(MAX(geo_id), 0) + 1 FROM events))"
+            + (setCapacity ? ", capacity = ? " : " ")
+            + "WHERE id = ?";
+        double[] coords = gazetteer.resolve(location);
+        
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                // Editing one occurrence of a series turns it into a real row first
+                if (isOccurrenceId(id) && !materializeOccurrence(conn, id)) {
+                    conn.rollback();
+                    return false;
+                }
+                pstmt.setString(1, title);
+                pstmt.setString(2, date);
+                pstmt.setString(3, location);
+                pstmt.setObject(4, coords != null ? coords[0] : null);
+                pstmt.setObject(5, coords != null ? coords[1] : null);
+                if (setCapacity) {
+                    pstmt.setObject(6, capacity);
+                    pstmt.setString(7, id);
+                } else {
+                    pstmt.setString(6, id);
+                }
+                pstmt.executeUpdate();
+                saveDescription(conn, id, description);
+                List<String> promoted = setCapacity ? promoteFromWaitlist(conn, id) : List.of();
+                conn.commit();
+                for (ChangeListener listener : changeListeners) {
+                    listener.eventDateChanged(id, date);
+                    for (String volunteerId : promoted) {
+                        listener.signupAdded(volunteerId, id);
+                    }
+                }
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            reportError("Error updating event", e);
+            return false;
+        }
+    }
+
+    public boolean deleteEvent(String id) {
+        // ON DELETE CASCADE will also remove signups; their hours leave the rollups first
+        String sql = "DELETE FROM events WHERE id = ?";
+        
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                // Deleting an occurrence of a series records it as an exception,
+                // so it is not expanded again
+                if (isOccurrenceId(id)) {
+                    try (PreparedStatement except = conn.prepareStatement(
+                            "INSERT OR IGNORE INTO event_series_exceptions (series_id, occurrence_date) VALUES (?, ?)")) {
+                        except.setString(1, id.substring(0, id.indexOf('@')));
+                        except.setString(2, id.substring(id.indexOf('@') + 1));
+                        except.executeUpdate();
+                    }
+                }
+                debitRecordedHours(conn, "s.event_id = ?", id);
+                pstmt.setString(1, id);
+                pstmt.executeUpdate();
+                conn.commit();
+                for (ChangeListener listener : changeListeners) {
+                    listener.eventDeleted(id);
+                }
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            reportError("Error deleting event", e);
+            return false;
+        }
+    }
+
+    public List<Event> getAllEvents() {
+        return getAllEvents(false);
+    }
+
+    /**
+     * Lists events ordered by date. Archived (past) events are only read
+     * when explicitly requested, so normal browsing never touches the archive.
+     */
+    public List<Event> getAllEvents(boolean includeArchived) {
+        List<Event> events = new ArrayList<>();
+        String sql = includeArchived
+            ? "SELECT id, title, event_date, location FROM main.events "
+                + "UNION ALL SELECT id, title, event_date, location FROM archive.events "
+                + "WHERE id NOT IN (SELECT id FROM main.events) "
+                + "ORDER BY event_date"
+            : "SELECT id, title, event_date, location FROM events ORDER BY event_date";
+        
+        try (Connection conn = includeArchived ? connectWithArchive() : connect();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                events.add(new Event(
+                    rs.getString("id"),
+                    rs.getString("title"),
+                    null,
+                    rs.getString("event_date"),
+                    rs.getString("location")
+                ));
+            }
+        } catch (SQLException e) {
+            reportError("Error getting all events", e);
+        }
+        return events;
+    }
+    
     public Event getEvent(String id) {
-        String sql = "SELECT * FROM events WHERE id = ?";
+        String sql = "SELECT id, title, event_date, location, capacity FROM events WHERE id = ?";
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, id);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
-                return new Event(
+                Event event = new Event(
                     rs.getString("id"),
                     rs.getString("title"),
-                    rs.getString("description"),
+                    null,
                     rs.getString("event_date"),
                     rs.getString("location")
                 );
+                int capacity = rs.getInt("capacity");
+                event.capacity = rs.wasNull() ? null : capacity;
+                return event;
+            }
+            if (isOccurrenceId(id)) {
+                return findOccurrence(conn, id);
             }
         } catch (SQLException e) {
-            System.err.println("Error getting event: " + e.getMessage());
+            reportError("Error getting event", e);
         }
         return null;
     }
 
-    // --- Signup Methods ---
+    /**
+     * Fetches one event's description, decompressing it if needed. This is
+     * the only read of the description table; lists never load descriptions.
+     * Occurrences of a series without their own description use the series'.
+     * Archived events are looked up in the archive.
+     */
+    public String getEventDescription(String id) {
+        try (Connection conn = connect()) {
+            String[] found = new String[1];
+            if (readDescription(conn, "main", id, found)) {
+                return found[0];
+            }
+            if (isOccurrenceId(id)) {
+                EventSeries series = loadSeries(conn, id.substring(0, id.indexOf('@')));
+                return series != null ? series.description : null;
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM events WHERE id = ?")) {
+                pstmt.setString(1, id);
+                if (pstmt.executeQuery().next()) return null;
+            }
+        } catch (SQLException e) {
+            reportError("Error getting event description", e);
+            return null;
+        }
+
+        try (Connection conn = connectWithArchive()) {
+            String[] found = new String[1];
+            if (readDescription(conn, "archive", id, found)) {
+                return found[0];
+            }
+            // Events archived before descriptions moved to their own table
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT description FROM archive.events WHERE id = ?")) {
+                pstmt.setString(1, id);
+                ResultSet rs = pstmt.executeQuery();
+                return rs.next() ? rs.getString("description") : null;
+            }
+        } catch (SQLException e) {
+            reportError("Error getting event description", e);
+            return null;
+        }
+    }
+
+    private boolean readDescription(Connection conn, String schema, String eventId, String[] result)
+            throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT compressed, body FROM " + schema + ".event_descriptions WHERE event_id = ?")) {
+            pstmt.setString(1, eventId);
+            ResultSet rs = pstmt.executeQuery();
+            if (!rs.next()) return false;
+            result[0] = decodeDescription(rs.getBytes("body"), rs.getInt("compressed") != 0);
+            return true;
+        }
+    }
+
+    /**
+     * Stores (or with a null description, removes) an event's description,
+     * deflating it when it is long enough for that to pay off.
+     */
+    private void saveDescription(Connection conn, String eventId, String description) throws SQLException {
+        if (description == null) {
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM event_descriptions WHERE event_id = ?")) {
+                pstmt.setString(1, eventId);
+                pstmt.executeUpdate();
+            }
+            return;
+        }
+        byte[] body = description.getBytes(StandardCharsets.UTF_8);
+        boolean compressed = false;
+        if (body.length >= DESCRIPTION_COMPRESS_THRESHOLD) {
+            byte[] deflated = deflate(body);
+            if (deflated.length < body.length) {
+                body = deflated;
+                compressed = true;
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT OR REPLACE INTO event_descriptions (event_id, compressed, body) VALUES (?, ?, ?)")) {
+            pstmt.setString(1, eventId);
+            pstmt.setInt(2, compressed ? 1 : 0);
+            pstmt.setBytes(3, body);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static String decodeDescription(byte[] body, boolean compressed) throws SQLException {
+        if (!compressed) {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(body);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(body.length * 3);
+            byte[] buffer = new byte[4096];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new SQLException("Truncated compressed description");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new SQLException("Corrupt compressed description", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Lists the events dated within [fromDate, toDate] (YYYY-MM-DD, inclusive),
+     * including occurrences of recurring series. Series are expanded only for
+     * this window; occurrences that already exist as rows are not duplicated.
+     */
+    public List<Event> getEventsInWindow(String fromDate, String toDate, boolean includeArchived) {
+        List<Event> events = new ArrayList<>();
+        String sql = includeArchived
+            ? "SELECT id, title, event_date, location FROM main.events WHERE event_date BETWEEN ? AND ? "
+                + "UNION ALL SELECT id, title, event_date, location FROM archive.events "
+                + "WHERE event_date BETWEEN ? AND ?"
+            : "SELECT id, title, event_date, location FROM events WHERE event_date BETWEEN ? AND ?";
+
+        // Past windows may hold archived series occurrences, which must not reappear as virtual ones
+        boolean attachArchive = includeArchived || fromDate.compareTo(LocalDate.now().toString()) < 0;
+
+        try (Connection conn = attachArchive ? connectWithArchive() : connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, fromDate);
+            pstmt.setString(2, toDate);
+            if (includeArchived) {
+                pstmt.setString(3, fromDate);
+                pstmt.setString(4, toDate);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            Set<String> seen = new HashSet<>();
+            while (rs.next()) {
+                if (!seen.add(rs.getString("id"))) continue;
+                events.add(new Event(
+                    rs.getString("id"),
+                    rs.getString("title"),
+                    null,
+                    rs.getString("event_date"),
+                    rs.getString("location")
+                ));
+            }
+            events.addAll(expandSeries(conn, LocalDate.parse(fromDate), LocalDate.parse(toDate), seen, attachArchive));
+        } catch (SQLException | DateTimeParseException e) {
+            reportError("Error getting events in window", e);
+        }
+        events.sort(Comparator.comparing((Event e) -> e.date).thenComparing(e -> e.title));
+        return events;
+    }
+
+    /**
+     * Returns one page of the live events within [fromDate, toDate], including
+     * series occurrences, ordered by (date, ID). Paging is keyset-based: pass
+     * the date and ID of the last event of the previous page (or nulls for the
+     * first page), so every page is a range scan on the date index.
+     */
+    public List<Event> getEventsPage(String fromDate, String toDate, String afterDate, String afterId, int limit) {
+        List<Event> events = new ArrayList<>();
+        String sql = """
+            SELECT id, title, event_date, location FROM events
+            WHERE event_date BETWEEN ? AND ? AND (event_date > ? OR (event_date = ? AND id > ?))
+            ORDER BY event_date, id
+            LIMIT ?
+            """;
+        String cursorDate = afterDate != null ? afterDate : "";
+        String cursorId = afterId != null ? afterId : "";
+        boolean attachArchive = fromDate.compareTo(LocalDate.now().toString()) < 0;
+
+        try (Connection conn = attachArchive ? connectWithArchive() : connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, fromDate);
+            pstmt.setString(2, toDate);
+            pstmt.setString(3, cursorDate);
+            pstmt.setString(4, cursorDate);
+            pstmt.setString(5, cursorId);
+            pstmt.setInt(6, limit);
+            ResultSet rs = pstmt.executeQuery();
+            Set<String> seen = new HashSet<>();
+            while (rs.next()) {
+                seen.add(rs.getString("id"));
+                events.add(new Event(
+                    rs.getString("id"),
+                    rs.getString("title"),
+                    null,
+                    rs.getString("event_date"),
+                    rs.getString("location")
+                ));
+            }
+
+            // Occurrences are only expanded from the cursor onwards, and no further than
+            // the last row of a full page. Each series contributes at most a page of
+            // occurrences, plus one for an occurrence on the cursor date itself.
+            LocalDate from = LocalDate.parse(cursorDate.compareTo(fromDate) > 0 ? cursorDate : fromDate);
+            LocalDate to = LocalDate.parse(events.size() == limit ? events.get(limit - 1).date : toDate);
+            for (Event occurrence : expandSeries(conn, from, to, seen, attachArchive, limit + 1)) {
+                int cmp = occurrence.date.compareTo(cursorDate);
+                if (cmp > 0 || (cmp == 0 && occurrence.id.compareTo(cursorId) > 0)) {
+                    events.add(occurrence);
+                }
+            }
+        } catch (SQLException | DateTimeParseException e) {
+            reportError("Error getting events page", e);
+        }
+        events.sort(Comparator.comparing((Event e) -> e.date).thenComparing(e -> e.id));
+        return events.size() > limit ? new ArrayList<>(events.subList(0, limit)) : events;
+    }
+
+    /**
+     * Returns a number that changes whenever any event, series or series
+     * exception changes, so clients can tell cheaply whether a listing is stale.
+     */
+    public long getEventsVersion() {
+        String value = getState(EVENTS_VERSION_KEY);
+        return value != null ? Long.parseLong(value) : 0;
+    }
+
+    // --- Recurring Event Methods ---
+
+    /**
+     * Creates a recurring series.
+     * @param untilDate last possible occurrence (YYYY-MM-DD), or null for no end
+     * @param frequency one of EventSeries.DAILY, WEEKLY or MONTHLY
+     * @return the new series ID, or null on failure (including an unknown frequency)
+     */
+    public String createEventSeries(String title, String description, String location,
+                                    String startDate, String untilDate, String frequency, int interval) {
+        if (!EventSeries.isValidFrequency(frequency)) {
+            reportError("Error creating event series", new IllegalArgumentException("Unknown frequency: " + frequency));
+            return null;
+        }
+        String newId = "s-" + UUID.randomUUID().toString().substring(0, 8);
+        String sql = "INSERT INTO event_series(id, title, description, location, start_date, until_date, "
+            + "frequency, interval_count, latitude, longitude) VALUES(?,?,?,?,?,?,?,?,?,?)";
+        double[] coords = gazetteer.resolve(location);
 
-    public boolean signUpForEvent(String volunteerId, String eventId) {
-        String sql = "INSERT INTO event_signups(volunteer_id, event_id) VALUES(?,?)";
-        
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, volunteerId);
-            pstmt.setString(2, eventId);
+            LocalDate.parse(startDate);
+            if (untilDate != null) LocalDate.parse(untilDate);
+            pstmt.setString(1, newId);
+            pstmt.setString(2, title);
+            pstmt.setString(3, description);
+            pstmt.setString(4, location);
+            pstmt.setString(5, startDate);
+            pstmt.setString(6, untilDate);
+            pstmt.setString(7, frequency);
+            pstmt.setInt(8, Math.max(1, interval));
+            pstmt.setObject(9, coords != null ? coords[0] : null);
+            pstmt.setObject(10, coords != null ? coords[1] : null);
             pstmt.executeUpdate();
-            return true;
-        } catch (SQLException e) {
-            System.err.println("Error signing up for event: " + e.getMessage());
-            return false; // Already signed up?
+            return newId;
+        } catch (SQLException | DateTimeParseException e) {
+            reportError("Error creating event series", e);
+            return null;
         }
     }
-    
-    public List<String> getEventsForVolunteer(String volunteerId) {
-        List<String> eventIds = new ArrayList<>();
-        String sql = "SELECT event_id FROM event_signups WHERE volunteer_id = ?";
-        
+
+    /**
+     * Updates a series rule. Occurrences that were already materialized
+     * (signed up for or edited individually) keep their own details.
+     */
+    public boolean updateEventSeries(String id, String title, String description, String location,
+                                     String startDate, String untilDate, String frequency, int interval) {
+        if (!EventSeries.isValidFrequency(frequency)) {
+            reportError("Error updating event series", new IllegalArgumentException("Unknown frequency: " + frequency));
+            return false;
+        }
+        String sql = "UPDATE event_series SET title = ?, description = ?, location = ?, start_date = ?, "
+            + "until_date = ?, frequency = ?, interval_count = ?, latitude = ?, longitude = ? WHERE id = ?";
+        double[] coords = gazetteer.resolve(location);
+
         try (Connection conn = connect();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, volunteerId);
-            ResultSet rs = pstmt.executeQuery();
+            LocalDate.parse(startDate);
+            if (untilDate != null) LocalDate.parse(untilDate);
+            pstmt.setString(1, title);
+            pstmt.setString(2, description);
+            pstmt.setString(3, location);
+            pstmt.setString(4, startDate);
+            pstmt.setString(5, untilDate);
+            pstmt.setString(6, frequency);
+            pstmt.setInt(7, Math.max(1, interval));
+            pstmt.setObject(8, coords != null ? coords[0] : null);
+            pstmt.setObject(9, coords != null ? coords[1] : null);
+            pstmt.setString(10, id);
+            return pstmt.executeUpdate() == 1;
+        } catch (SQLException | DateTimeParseException e) {
+            reportError("Error updating event series", e);
+            return false;
+        }
+    }
+
+    /**
+     * Deletes a series together with its materialized occurrences
+     * (and, through them, their signups, whose hours leave the rollups).
+     */
+    public boolean deleteEventSeries(String id) {
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement deleteOccurrences = conn.prepareStatement("DELETE FROM events WHERE series_id = ?");
+                 PreparedStatement deleteExceptions = conn.prepareStatement("DELETE FROM event_series_exceptions WHERE series_id = ?");
+                 PreparedStatement deleteSeries = conn.prepareStatement("DELETE FROM event_series WHERE id = ?")) {
+                debitRecordedHours(conn, "e.series_id = ?", id);
+                deleteOccurrences.setString(1, id);
+                deleteOccurrences.executeUpdate();
+                deleteExceptions.setString(1, id);
+                deleteExceptions.executeUpdate();
+                deleteSeries.setString(1, id);
+                deleteSeries.executeUpdate();
+                conn.commit();
+                for (ChangeListener listener : changeListeners) {
+                    listener.seriesDeleted(id);
+                }
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            reportError("Error deleting event series", e);
+            return false;
+        }
+    }
+
+    public EventSeries getEventSeries(String id) {
+        try (Connection conn = connect()) {
+            return loadSeries(conn, id);
+        } catch (SQLException e) {
+            reportError("Error getting event series", e);
+            return null;
+        }
+    }
+
+    public List<EventSeries> getAllEventSeries() {
+        List<EventSeries> series = new ArrayList<>();
+        String sql = "SELECT * FROM event_series ORDER BY start_date";
+
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                eventIds.add(rs.getString("event_id"));
+                series.add(readSeries(rs));
             }
         } catch (SQLException e) {
-            System.err.println("Error getting volunteer's events: " + e.getMessage());
+            reportError("Error getting event series", e);
+        }
+        return series;
+    }
+
+    static boolean isOccurrenceId(String eventId) {
+        return eventId != null && eventId.startsWith("s-") && eventId.indexOf('@') > 0;
+    }
+
+    private EventSeries readSeries(ResultSet rs) throws SQLException {
+        EventSeries series = new EventSeries(
+            rs.getString("id"),
+            rs.getString("title"),
+            rs.getString("description"),
+            rs.getString("location"),
+            rs.getString("start_date"),
+            rs.getString("until_date"),
+            rs.getString("frequency"),
+            rs.getInt("interval_count")
+        );
+        double lat = rs.getDouble("latitude");
+        series.latitude = rs.wasNull() ? null : lat;
+        double lon = rs.getDouble("longitude");
+        series.longitude = rs.wasNull() ? null : lon;
+        return series;
+    }
+
+    private EventSeries loadSeries(Connection conn, String id) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM event_series WHERE id = ?")) {
+            pstmt.setString(1, id);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? readSeries(rs) : null;
+        }
+    }
+
+    /**
+     * Builds an occurrence from its series, or returns null if the ID does not
+     * name a valid, non-cancelled occurrence.
+     */
+    private Event findOccurrence(Connection conn, String occurrenceId) throws SQLException {
+        int at = occurrenceId.indexOf('@');
+        EventSeries series = loadSeries(conn, occurrenceId.substring(0, at));
+        if (series == null) return null;
+
+        LocalDate date;
+        try {
+            date = LocalDate.parse(occurrenceId.substring(at + 1));
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+        if (!series.isOccurrence(date)) return null;
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT 1 FROM event_series_exceptions WHERE series_id = ? AND occurrence_date = ?")) {
+            pstmt.setString(1, series.id);
+            pstmt.setString(2, date.toString());
+            if (pstmt.executeQuery().next()) return null;
+        }
+        return series.toOccurrence(date);
+    }
+
+    /**
+     * Makes sure an occurrence exists as a row in 'events', so signups and
+     * edits can attach to it. Only this one occurrence is written.
+     * @return false if the ID is not a valid occurrence
+     */
+    private boolean materializeOccurrence(Connection conn, String occurrenceId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM events WHERE id = ?")) {
+            pstmt.setString(1, occurrenceId);
+            if (pstmt.executeQuery().next()) return true;
+        }
+        Event occurrence = findOccurrence(conn, occurrenceId);
+        if (occurrence == null) return false;
+
+        // No description row: getEventDescription() falls back to the series until one is saved
+        String sql = "INSERT OR IGNORE INTO events(id, title, event_date, location, latitude, longitude, "
+            + "series_id, geo_id) VALUES(?,?,?,?,?,?,?,(SELECT IFNULL(MAX(geo_id), 0) + 1 FROM events))";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, occurrence.id);
+            pstmt.setString(2, occurrence.title);
+            pstmt.setString(3, occurrence.date);
+            pstmt.setString(4, occurrence.location);
+            pstmt.setObject(5, occurrence.latitude);
+            pstmt.setObject(6, occurrence.longitude);
+            pstmt.setString(7, occurrence.seriesId);
+            pstmt.executeUpdate();
+        }
+        return true;
+    }
+
+    /**
+     * Expands every series overlapping [from, to] into occurrences, skipping
+     * cancelled dates and occurrences already present as rows. With the
+     * archive attached, archived occurrences are skipped too.
+     */
+    private List<Event> expandSeries(Connection conn, LocalDate from, LocalDate to, Set<String> seen,
+                                     boolean archiveAttached) throws SQLException {
+        return expandSeries(conn, from, to, seen, archiveAttached, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Like expandSeries above, but stops each series after its first
+     * maxPerSeries occurrences from 'from' onwards, so a page costs the same
+     * however wide its window is.
+     */
+    private List<Event> expandSeries(Connection conn, LocalDate from, LocalDate to, Set<String> seen,
+                                     boolean archiveAttached, int maxPerSeries) throws SQLException {
+        List<Event> occurrences = new ArrayList<>();
+        List<EventSeries> overlapping = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT * FROM main.event_series WHERE start_date <= ? AND (until_date IS NULL OR until_date >= ?)")) {
+            pstmt.setString(1, to.toString());
+            pstmt.setString(2, from.toString());
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                overlapping.add(readSeries(rs));
+            }
+        }
+
+        try (PreparedStatement exceptions = conn.prepareStatement(
+                "SELECT occurrence_date FROM main.event_series_exceptions "
+                    + "WHERE series_id = ? AND occurrence_date BETWEEN ? AND ?");
+             PreparedStatement materialized = conn.prepareStatement(archiveAttached
+                ? "SELECT id FROM main.events WHERE id BETWEEN ?1 AND ?2 "
+                    + "UNION ALL SELECT id FROM archive.events WHERE id BETWEEN ?1 AND ?2"
+                : "SELECT id FROM main.events WHERE id BETWEEN ?1 AND ?2")) {
+            for (EventSeries series : overlapping) {
+                // Skipped dates do not count towards the cap, so look further until it is met
+                int wanted = maxPerSeries;
+                LocalDate chunkFrom = from;
+                while (wanted > 0) {
+                    int requested = wanted;
+                    List<LocalDate> dates = series.occurrencesBetween(chunkFrom, to, requested);
+                    if (dates.isEmpty()) break;
+                    LocalDate chunkTo = dates.get(dates.size() - 1);
+
+                    // Occurrence IDs sort by date, so both lookups are range scans
+                    Set<String> skip = new HashSet<>();
+                    exceptions.setString(1, series.id);
+                    exceptions.setString(2, chunkFrom.toString());
+                    exceptions.setString(3, chunkTo.toString());
+                    ResultSet rs = exceptions.executeQuery();
+                    while (rs.next()) {
+                        skip.add(series.id + "@" + rs.getString("occurrence_date"));
+                    }
+                    materialized.setString(1, series.id + "@" + chunkFrom);
+                    materialized.setString(2, series.id + "@" + chunkTo);
+                    rs = materialized.executeQuery();
+                    while (rs.next()) {
+                        skip.add(rs.getString("id"));
+                    }
+
+                    for (LocalDate date : dates) {
+                        String id = series.id + "@" + date;
+                        if (skip.contains(id) || !seen.add(id)) continue;
+                        occurrences.add(series.toOccurrence(date));
+                        wanted--;
+                    }
+                    if (dates.size() < requested) break; // Reached the end of the window
+                    chunkFrom = chunkTo.plusDays(1);
+                }
+            }
+        }
+        return occurrences;
+    }
+
+    // --- Location Methods ---
+
+    /**
+     * Resolves a place name using the offline gazetteer.
+     * @return {latitude, longitude}, or null if the place is unknown
+     */
+    public double[] resolveLocation(String place) {
+        return gazetteer.resolve(place);
+    }
+
+    /**
+     * Finds the upcoming live events within a radius of a point, nearest
+     * first, including series occurrences.
+     */
+    public List<Event> findEventsNear(double lat, double lon, double radiusKm, int limit) {
+        return findEventsNear(lat, lon, radiusKm, LocalDate.now().toString(), "9999-12-31", false, limit);
+    }
+
+    /**
+     * Finds the events dated within [fromDate, toDate] that lie within a
+     * radius of a point, nearest first, including series occurrences and,
+     * optionally, archived events. Only live event rows are served by the
+     * R*Tree: it narrows them to a bounding box around the point (split in
+     * two where it crosses the 180th meridian) and only those candidates get
+     * an exact great-circle distance check.
+     * <p>
+     * Two paths are NOT index-served. Archived events are box-filtered on
+     * the plain latitude and longitude columns of archive.events, which
+     * scans the archive. Series occurrences are not rows, so every series
+     * overlapping the window is expanded (at most 'limit' occurrences each,
+     * as they all share the series location) and distance-checked.
+     */
+    public List<Event> findEventsNear(double lat, double lon, double radiusKm, String fromDate, String toDate,
+                                      boolean includeArchived, int limit) {
+        List<Event> events = new ArrayList<>();
+        lon = normalizeLongitude(lon);
+        double dLat = radiusKm / KM_PER_DEGREE_LAT;
+        double cosLat = Math.cos(Math.toRadians(lat));
+        // Near a pole the circle can cover every longitude
+        boolean coversPole = lat + dLat >= 90 || lat - dLat <= -90;
+        double dLon = (cosLat > 1e-6 && !coversPole) ? Math.min(180, radiusKm / (KM_PER_DEGREE_LAT * cosLat)) : 180;
+        String liveSql = """
+            SELECT e.id, e.title, e.event_date, e.location, e.latitude, e.longitude
+            FROM event_geo g JOIN main.events e ON e.geo_id = g.id
+            WHERE g.max_lat >= ? AND g.min_lat <= ? AND g.max_lon >= ? AND g.min_lon <= ?
+              AND e.event_date BETWEEN ? AND ?
+            """;
+        String archiveSql = """
+            SELECT id, title, event_date, location, latitude, longitude FROM archive.events
+            WHERE latitude BETWEEN ? AND ? AND longitude BETWEEN ? AND ?
+              AND event_date BETWEEN ? AND ?
+            """;
+        boolean attachArchive = includeArchived || fromDate.compareTo(LocalDate.now().toString()) < 0;
+
+        try (Connection conn = attachArchive ? connectWithArchive() : connect()) {
+            Set<String> seen = new HashSet<>();
+            for (double[] lonRange : longitudeRanges(lon, dLon)) {
+                for (String sql : includeArchived ? List.of(liveSql, archiveSql) : List.of(liveSql)) {
+                    try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                        pstmt.setDouble(1, lat - dLat);
+                        pstmt.setDouble(2, lat + dLat);
+                        pstmt.setDouble(3, lonRange[0]);
+                        pstmt.setDouble(4, lonRange[1]);
+                        pstmt.setString(5, fromDate);
+                        pstmt.setString(6, toDate);
+                        ResultSet rs = pstmt.executeQuery();
+                        while (rs.next()) {
+                            double eventLat = rs.getDouble("latitude");
+                            double eventLon = rs.getDouble("longitude");
+                            double distance = distanceKm(lat, lon, eventLat, eventLon);
+                            if (distance > radiusKm || !seen.add(rs.getString("id"))) continue;
+
+                            Event event = new Event(
+                                rs.getString("id"),
+                                rs.getString("title"),
+                                null,
+                                rs.getString("event_date"),
+                                rs.getString("location")
+                            );
+                            event.latitude = eventLat;
+                            event.longitude = eventLon;
+                            event.distanceKm = distance;
+                            events.add(event);
+                        }
+                    }
+                }
+            }
+
+            // Occurrences that exist as rows were checked above; expandSeries skips them
+            for (Event occurrence : expandSeries(conn, LocalDate.parse(fromDate), LocalDate.parse(toDate),
+                    new HashSet<>(), attachArchive, limit)) {
+                if (occurrence.latitude == null || occurrence.longitude == null) continue;
+                double distance = distanceKm(lat, lon, occurrence.latitude, occurrence.longitude);
+                if (distance > radiusKm) continue;
+                occurrence.distanceKm = distance;
+                events.add(occurrence);
+            }
+        } catch (SQLException | DateTimeParseException e) {
+            reportError("Error finding events nearby", e);
+        }
+        events.sort((a, b) -> Double.compare(a.distanceKm, b.distanceKm));
+        return events.size() > limit ? new ArrayList<>(events.subList(0, limit)) : events;
+    }
+
+    private static double normalizeLongitude(double lon) {
+        return ((lon + 180) % 360 + 360) % 360 - 180;
+    }
+
+    /**
+     * Longitude ranges covering lon +/- dLon. A range that crosses the 180th
+     * meridian is split into one range on each side of it.
+     */
+    private static List<double[]> longitudeRanges(double lon, double dLon) {
+        double west = lon - dLon, east = lon + dLon;
+        if (dLon >= 180) {
+            return List.of(new double[] {-180, 180});
+        } else if (west < -180) {
+            return List.of(new double[] {-180, east}, new double[] {west + 360, 180});
+        } else if (east > 180) {
+            return List.of(new double[] {west, 180}, new double[] {-180, east - 360});
+        }
+        return List.of(new double[] {west, east});
+    }
+
+    // Haversine great-circle distance
+    private static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // --- Signup Methods ---
+
+    /**
+     * Signs a volunteer up, or adds them to the waitlist if the event is full.
+     * @return true if the volunteer got a place or joined the waitlist
+     */
+    public boolean signUpForEvent(String volunteerId, String eventId) {
+        SignupResult result = joinEvent(volunteerId, eventId);
+        return result == SignupResult.SIGNED_UP || result == SignupResult.WAITLISTED;
+    }
+
+    /**
+     * Signs a volunteer up for an event. When the event is at capacity, or
+     * others are already waiting, the volunteer joins the waitlist instead,
+     * ahead of earlier joiners without a matching skill if one of their
+     * skills appears in the event title. Runs in one write transaction, so
+     * concurrent joins cannot overfill the event.
+     */
+    public SignupResult joinEvent(String volunteerId, String eventId) {
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            try {
+                // Signing up for an occurrence of a series materializes just that occurrence
+                if (isOccurrenceId(eventId) && !materializeOccurrence(conn, eventId)) {
+                    conn.rollback();
+                    return SignupResult.FAILED;
+                }
+                if (isSignedUp(conn, volunteerId, eventId) || getWaitlistSeq(conn, volunteerId, eventId) != null) {
+                    conn.rollback();
+                    return SignupResult.ALREADY_JOINED;
+                }
+
+                if (freePlaces(conn, eventId) > 0 && getWaitlistHead(conn, eventId) == null) {
+                    insertSignup(conn, volunteerId, eventId);
+                    conn.commit();
+                    for (ChangeListener listener : changeListeners) {
+                        listener.signupAdded(volunteerId, eventId);
+                    }
+                    return SignupResult.SIGNED_UP;
+                }
+
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "INSERT INTO event_waitlist (event_id, volunteer_id, priority, joined_at) VALUES (?, ?, ?, ?)")) {
+                    pstmt.setString(1, eventId);
+                    pstmt.setString(2, volunteerId);
+                    pstmt.setInt(3, waitlistPriority(conn, volunteerId, eventId));
+                    pstmt.setString(4, LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).toString());
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+                return SignupResult.WAITLISTED;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            reportError("Error signing up for event", e);
+            return SignupResult.FAILED;
+        }
+    }
+
+    /**
+     * Cancels a volunteer's signup or waitlist entry. A cancelled signup
+     * frees a place, which goes to the head of the waitlist in the same
+     * transaction; any hours recorded on it are taken back out of the rollups.
+     * @return false if the volunteer had neither
+     */
+    public boolean cancelSignup(String volunteerId, String eventId) {
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            try {
+                debitRecordedHours(conn, "s.event_id = ? AND s.volunteer_id = ?", eventId, volunteerId);
+                int removed;
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "DELETE FROM event_signups WHERE event_id = ? AND volunteer_id = ?")) {
+                    pstmt.setString(1, eventId);
+                    pstmt.setString(2, volunteerId);
+                    removed = pstmt.executeUpdate();
+                }
+                if (removed == 0) {
+                    try (PreparedStatement pstmt = conn.prepareStatement(
+                            "DELETE FROM event_waitlist WHERE event_id = ? AND volunteer_id = ?")) {
+                        pstmt.setString(1, eventId);
+                        pstmt.setString(2, volunteerId);
+                        boolean wasWaiting = pstmt.executeUpdate() > 0;
+                        conn.commit();
+                        return wasWaiting;
+                    }
+                }
+
+                List<String> promoted = promoteFromWaitlist(conn, eventId);
+                conn.commit();
+                for (ChangeListener listener : changeListeners) {
+                    listener.signupRemoved(volunteerId, eventId);
+                    for (String promotedId : promoted) {
+                        listener.signupAdded(promotedId, eventId);
+                    }
+                }
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            reportError("Error cancelling signup", e);
+            return false;
+        }
+    }
+
+    /**
+     * @return the volunteer's 1-based place in the event's waitlist, or 0 if not waiting
+     */
+    public int getWaitlistPosition(String volunteerId, String eventId) {
+        Integer position = getWaitlistPositions(volunteerId).get(eventId);
+        return position != null ? position : 0;
+    }
+
+    /**
+     * Returns the volunteer's place in every waitlist they are on, by event ID.
+     * Each of those waitlists is numbered in one pass along idx_waitlist_order
+     * rather than counting the entries ahead once per row.
+     */
+    public Map<String, Integer> getWaitlistPositions(String volunteerId) {
+        Map<String, Integer> positions = new HashMap<>();
+        String sql = """
+            SELECT event_id, position FROM (
+                SELECT event_id, volunteer_id,
+                       ROW_NUMBER() OVER (PARTITION BY event_id ORDER BY priority DESC, seq) AS position
+                FROM event_waitlist
+                WHERE event_id IN (SELECT event_id FROM event_waitlist WHERE volunteer_id = ?1)
+            )
+            WHERE volunteer_id = ?1
+            """;
+
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, volunteerId);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                positions.put(rs.getString("event_id"), rs.getInt("position"));
+            }
+        } catch (SQLException e) {
+            reportError("Error getting waitlist positions", e);
+        }
+        return positions;
+    }
+
+    public int getWaitlistSize(String eventId) {
+        String sql = "SELECT COUNT(*) FROM event_waitlist WHERE event_id = ?";
+
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, eventId);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            reportError("Error getting waitlist size", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Moves volunteers from the head of the waitlist into free places.
+     * Must run inside the caller's write transaction.
+     * @return the IDs of the promoted volunteers, in promotion order
+     */
+    private List<String> promoteFromWaitlist(Connection conn, String eventId) throws SQLException {
+        List<String> promoted = new ArrayList<>();
+        long places = freePlaces(conn, eventId);
+        try (PreparedStatement remove = conn.prepareStatement("DELETE FROM event_waitlist WHERE seq = ?")) {
+            while (places-- > 0) {
+                String[] head = getWaitlistHead(conn, eventId);
+                if (head == null) break;
+                remove.setLong(1, Long.parseLong(head[0]));
+                remove.executeUpdate();
+                insertSignup(conn, head[1], eventId);
+                promoted.add(head[1]);
+            }
+        }
+        return promoted;
+    }
+
+    /** @return {seq, volunteer_id} of the next volunteer to promote, or null if nobody is waiting */
+    private String[] getWaitlistHead(Connection conn, String eventId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT seq, volunteer_id FROM event_waitlist WHERE event_id = ? ORDER BY priority DESC, seq LIMIT 1")) {
+            pstmt.setString(1, eventId);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? new String[]{rs.getString("seq"), rs.getString("volunteer_id")} : null;
+        }
+    }
+
+    private Long getWaitlistSeq(Connection conn, String volunteerId, String eventId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT seq FROM event_waitlist WHERE event_id = ? AND volunteer_id = ?")) {
+            pstmt.setString(1, eventId);
+            pstmt.setString(2, volunteerId);
+            ResultSet rs = pstmt.executeQuery();
+            return rs.next() ? rs.getLong("seq") : null;
+        }
+    }
+
+    private boolean isSignedUp(Connection conn, String volunteerId, String eventId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT 1 FROM event_signups WHERE event_id = ? AND volunteer_id = ?")) {
+            pstmt.setString(1, eventId);
+            pstmt.setString(2, volunteerId);
+            return pstmt.executeQuery().next();
+        }
+    }
+
+    private void insertSignup(Connection conn, String volunteerId, String eventId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO event_signups(volunteer_id, event_id) VALUES(?,?)")) {
+            pstmt.setString(1, volunteerId);
+            pstmt.setString(2, eventId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Places left, from the capacity and the signup counter table.
+     * Long.MAX_VALUE for events without a capacity.
+     */
+    private long freePlaces(Connection conn, String eventId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("""
+                SELECT e.capacity, IFNULL(c.signup_count, 0) AS taken
+                FROM events e LEFT JOIN event_signup_counts c ON c.event_id = e.id
+                WHERE e.id = ?
+                """)) {
+            pstmt.setString(1, eventId);
+            ResultSet rs = pstmt.executeQuery();
+            if (!rs.next()) return 0;
+            long capacity = rs.getLong("capacity");
+            if (rs.wasNull()) return Long.MAX_VALUE;
+            return Math.max(0, capacity - rs.getLong("taken"));
+        }
+    }
+
+    /**
+     * 1 if any of the volunteer's skills appears in the event title, else 0.
+     */
+    private int waitlistPriority(Connection conn, String volunteerId, String eventId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT v.skills, e.title FROM volunteers v, events e WHERE v.id = ? AND e.id = ?")) {
+            pstmt.setString(1, volunteerId);
+            pstmt.setString(2, eventId);
+            ResultSet rs = pstmt.executeQuery();
+            if (!rs.next() || rs.getString("skills") == null) return 0;
+            String title = rs.getString("title").toLowerCase();
+            for (String skill : rs.getString("skills").toLowerCase().split("[,;\\s]+")) {
+                if (skill.length() >= 3 && title.contains(skill)) return 1;
+            }
+            return 0;
+        }
+    }
+
+    public List<String> getEventsForVolunteer(String volunteerId) {
+        return getEventsForVolunteer(volunteerId, false);
+    }
+
+    public List<String> getEventsForVolunteer(String volunteerId, boolean includeArchived) {
+        List<String> eventIds = new ArrayList<>();
+        String sql = includeArchived
+            ? "SELECT event_id FROM main.event_signups WHERE volunteer_id = ? "
+                + "UNION SELECT event_id FROM archive.event_signups WHERE volunteer_id = ?"
+            : "SELECT event_id FROM event_signups WHERE volunteer_id = ?";
+        
+        try (Connection conn = includeArchived ? connectWithArchive() : connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, volunteerId);
+            if (includeArchived) {
+                pstmt.setString(2, volunteerId);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                eventIds.add(rs.getString("event_id"));
+            }
+        } catch (SQLException e) {
+            reportError("Error getting volunteer's events", e);
+        }
+        return eventIds;
+    }
+
+    /**
+     * Returns the number of volunteers signed up for an event, read from the
+     * incrementally maintained counter table.
+     */
+    public int getSignupCount(String eventId) {
+        String sql = "SELECT signup_count FROM event_signup_counts WHERE event_id = ?";
+        
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, eventId);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt("signup_count");
+            }
+        } catch (SQLException e) {
+            reportError("Error getting signup count", e);
+        }
+        return 0;
+    }
+
+    /**
+     * Returns one page of an event's roster, ordered by volunteer ID.
+     * Paging is keyset-based: pass the last volunteer ID of the previous page
+     * (or null for the first page), so each page is a range scan on the
+     * event_signups primary key no matter how deep the user has scrolled.
+     */
+    public List<RosterEntry> getRosterPage(String eventId, String afterVolunteerId, int limit) {
+        List<RosterEntry> roster = new ArrayList<>();
+        String sql = """
+            SELECT s.volunteer_id, v.name, v.email, s.checked_in_at, s.hours
+            FROM event_signups s JOIN volunteers v ON v.id = s.volunteer_id
+            WHERE s.event_id = ? AND s.volunteer_id > ?
+            ORDER BY s.volunteer_id
+            LIMIT ?
+            """;
+        
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, eventId);
+            pstmt.setString(2, afterVolunteerId != null ? afterVolunteerId : "");
+            pstmt.setInt(3, limit);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                double hours = rs.getDouble("hours");
+                roster.add(new RosterEntry(
+                    rs.getString("volunteer_id"),
+                    rs.getString("name"),
+                    rs.getString("email"),
+                    rs.getString("checked_in_at"),
+                    rs.wasNull() ? null : hours
+                ));
+            }
+        } catch (SQLException e) {
+            reportError("Error getting event roster", e);
+        }
+        return roster;
+    }
+
+    // --- Attendance Methods ---
+
+    /**
+     * Records that a signed-up volunteer has arrived at an event.
+     * @return true if the signup exists and was not already checked in
+     */
+    public boolean checkIn(String volunteerId, String eventId) {
+        String sql = "UPDATE event_signups SET checked_in_at = ?, checked_out_at = NULL "
+            + "WHERE volunteer_id = ? AND event_id = ? AND checked_in_at IS NULL";
+        
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, LocalDateTime.now().withNano(0).toString());
+            pstmt.setString(2, volunteerId);
+            pstmt.setString(3, eventId);
+            return pstmt.executeUpdate() == 1;
+        } catch (SQLException e) {
+            reportError("Error checking in", e);
+            return false;
+        }
+    }
+
+    /**
+     * Checks a volunteer out and credits the hours since check-in.
+     * @return true if the volunteer was checked in and the hours were recorded
+     */
+    public boolean checkOut(String volunteerId, String eventId) {
+        return recordHours(volunteerId, eventId, null);
+    }
+
+    /**
+     * Records (or corrects) the hours worked on a signup and applies the
+     * difference to the volunteer, monthly and location rollups in the same
+     * transaction.
+     * @param hours the hours to record, or null to use the time since check-in
+     */
+    public boolean recordHours(String volunteerId, String eventId, Double hours) {
+        String selectSql = """
+            SELECT s.checked_in_at, s.hours, s.hours_month, s.hours_location, e.event_date, e.location
+            FROM event_signups s JOIN events e ON e.id = s.event_id
+            WHERE s.volunteer_id = ? AND s.event_id = ?
+            """;
+        String updateSql = """
+            UPDATE event_signups SET checked_out_at = ?, hours = ?, hours_month = ?, hours_location = ?
+            WHERE volunteer_id = ? AND event_id = ?
+            """;
+        String volunteerSql = """
+            INSERT INTO volunteer_hours (volunteer_id, total_hours, shifts) VALUES (?, ?, ?)
+            ON CONFLICT (volunteer_id) DO UPDATE SET
+                total_hours = total_hours + excluded.total_hours, shifts = shifts + excluded.shifts
+            """;
+        String monthlySql = """
+            INSERT INTO volunteer_hours_monthly (volunteer_id, month, hours) VALUES (?, ?, ?)
+            ON CONFLICT (volunteer_id, month) DO UPDATE SET hours = hours + excluded.hours
+            """;
+        String locationSql = """
+            INSERT INTO location_hours (location, total_hours, shifts) VALUES (?, ?, ?)
+            ON CONFLICT (location) DO UPDATE SET
+                total_hours = total_hours + excluded.total_hours, shifts = shifts + excluded.shifts
+            """;
+
+        try (Connection conn = connect()) {
+            conn.setAutoCommit(false);
+            try {
+                String checkedInAt, month, location, previousMonth, previousLocation;
+                Double previousHours;
+                try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                    pstmt.setString(1, volunteerId);
+                    pstmt.setString(2, eventId);
+                    ResultSet rs = pstmt.executeQuery();
+                    if (!rs.next()) {
+                        conn.rollback();
+                        return false; // Not signed up
+                    }
+                    checkedInAt = rs.getString("checked_in_at");
+                    double h = rs.getDouble("hours");
+                    previousHours = rs.wasNull() ? null : h;
+                    String eventDate = rs.getString("event_date");
+                    month = eventDate.length() >= 7 ? eventDate.substring(0, 7) : eventDate;
+                    location = rs.getString("location");
+                    previousMonth = rs.getString("hours_month") != null ? rs.getString("hours_month") : month;
+                    previousLocation = rs.getString("hours_location") != null ? rs.getString("hours_location") : location;
+                }
+
+                LocalDateTime now = LocalDateTime.now().withNano(0);
+                if (hours == null) {
+                    if (checkedInAt == null) {
+                        conn.rollback();
+                        return false; // Never checked in
+                    }
+                    long minutes = Duration.between(LocalDateTime.parse(checkedInAt), now).toMinutes();
+                    hours = Math.max(0, minutes) / 60.0;
+                }
+                hours = Math.round(hours * 100) / 100.0;
+                double delta = hours - (previousHours != null ? previousHours : 0);
+                int newShift = (previousHours == null) ? 1 : 0;
+
+                try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                    pstmt.setString(1, now.toString());
+                    pstmt.setDouble(2, hours);
+                    pstmt.setString(3, month);
+                    pstmt.setString(4, location);
+                    pstmt.setString(5, volunteerId);
+                    pstmt.setString(6, eventId);
+                    pstmt.executeUpdate();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(volunteerSql)) {
+                    pstmt.setString(1, volunteerId);
+                    pstmt.setDouble(2, delta);
+                    pstmt.setInt(3, newShift);
+                    pstmt.executeUpdate();
+                }
+                // A correction takes the old hours out of the bucket they were credited to
+                // (the event may have moved since) and credits the new hours to the current one
+                try (PreparedStatement monthly = conn.prepareStatement(monthlySql);
+                     PreparedStatement byLocation = conn.prepareStatement(locationSql)) {
+                    if (previousHours != null) {
+                        monthly.setString(1, volunteerId);
+                        monthly.setString(2, previousMonth);
+                        monthly.setDouble(3, -previousHours);
+                        monthly.executeUpdate();
+                        byLocation.setString(1, previousLocation);
+                        byLocation.setDouble(2, -previousHours);
+                        byLocation.setInt(3, -1);
+                        byLocation.executeUpdate();
+                    }
+                    monthly.setString(1, volunteerId);
+                    monthly.setString(2, month);
+                    monthly.setDouble(3, hours);
+                    monthly.executeUpdate();
+                    byLocation.setString(1, location);
+                    byLocation.setDouble(2, hours);
+                    byLocation.setInt(3, 1);
+                    byLocation.executeUpdate();
+                }
+                conn.commit();
+                return true;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            reportError("Error recording hours", e);
+            return false;
+        }
+    }
+
+    /**
+     * Takes the hours of the signups about to be deleted back out of the
+     * volunteer, monthly and location rollups, from the buckets they were
+     * credited to. Call it in the deleting transaction, before the DELETE.
+     * @param signupFilter condition on event_signups (aliased 's') selecting the signups
+     */
+    private static void debitRecordedHours(Connection conn, String signupFilter, String... params) throws SQLException {
+        String recorded = "FROM event_signups s JOIN events e ON e.id = s.event_id "
+            + "WHERE s.hours IS NOT NULL AND (" + signupFilter + ") ";
+        executeUpdate(conn, "UPDATE volunteer_hours SET "
+            + "total_hours = total_hours - x.debit_hours, shifts = shifts - x.debit_shifts "
+            + "FROM (SELECT s.volunteer_id AS debit_volunteer, SUM(s.hours) AS debit_hours, COUNT(*) AS debit_shifts "
+            + recorded + "GROUP BY s.volunteer_id) AS x "
+            + "WHERE volunteer_hours.volunteer_id = x.debit_volunteer", params);
+        executeUpdate(conn, "UPDATE volunteer_hours_monthly SET hours = hours - x.debit_hours "
+            + "FROM (SELECT s.volunteer_id AS debit_volunteer, "
+            + "COALESCE(s.hours_month, substr(e.event_date, 1, 7)) AS debit_month, SUM(s.hours) AS debit_hours "
+            + recorded + "GROUP BY debit_volunteer, debit_month) AS x "
+            + "WHERE volunteer_hours_monthly.volunteer_id = x.debit_volunteer "
+            + "AND volunteer_hours_monthly.month = x.debit_month", params);
+        executeUpdate(conn, "UPDATE location_hours SET "
+            + "total_hours = total_hours - x.debit_hours, shifts = shifts - x.debit_shifts "
+            + "FROM (SELECT COALESCE(s.hours_location, e.location) AS debit_location, "
+            + "SUM(s.hours) AS debit_hours, COUNT(*) AS debit_shifts "
+            + recorded + "GROUP BY debit_location) AS x "
+            + "WHERE location_hours.location = x.debit_location", params);
+    }
+
+    // --- Report Methods (read only the rollup tables) ---
+
+    /**
+     * Returns the volunteers with the most recorded hours.
+     */
+    public List<HoursTotal> getTopVolunteers(int limit) {
+        String sql = """
+            SELECT h.volunteer_id, v.name, h.total_hours
+            FROM volunteer_hours h JOIN volunteers v ON v.id = h.volunteer_id
+            ORDER BY h.total_hours DESC
+            LIMIT ?
+            """;
+        return queryHoursTotals(sql, "volunteer_id", "name", "total_hours", null, limit);
+    }
+
+    /**
+     * Returns the locations with the most recorded hours.
+     */
+    public List<HoursTotal> getTopLocations(int limit) {
+        String sql = "SELECT location, total_hours FROM location_hours ORDER BY total_hours DESC LIMIT ?";
+        return queryHoursTotals(sql, "location", "location", "total_hours", null, limit);
+    }
+
+    /**
+     * Returns a volunteer's hours per month (YYYY-MM), most recent first.
+     */
+    public List<HoursTotal> getMonthlyHours(String volunteerId) {
+        String sql = "SELECT month, hours FROM volunteer_hours_monthly WHERE volunteer_id = ? ORDER BY month DESC LIMIT ?";
+        return queryHoursTotals(sql, "month", "month", "hours", volunteerId, Integer.MAX_VALUE);
+    }
+
+    public double getVolunteerHours(String volunteerId) {
+        String sql = "SELECT total_hours FROM volunteer_hours WHERE volunteer_id = ?";
+        
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, volunteerId);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getDouble("total_hours");
+            }
+        } catch (SQLException e) {
+            reportError("Error getting volunteer hours", e);
+        }
+        return 0;
+    }
+
+    private List<HoursTotal> queryHoursTotals(String sql, String keyColumn, String labelColumn,
+                                              String hoursColumn, String param, int limit) {
+        List<HoursTotal> totals = new ArrayList<>();
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (param != null) {
+                pstmt.setString(i++, param);
+            }
+            pstmt.setInt(i, limit);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                totals.add(new HoursTotal(
+                    rs.getString(keyColumn),
+                    rs.getString(labelColumn),
+                    rs.getDouble(hoursColumn)
+                ));
+            }
+        } catch (SQLException e) {
+            reportError("Error getting hour totals", e);
+        }
+        return totals;
+    }
+
+    // --- Reminder Methods ---
+
+    /**
+     * Lists signups for events dated in (afterDate, toDate], using the
+     * event_date index, so only the upcoming window is read.
+     */
+    public List<UpcomingSignup> getUpcomingSignups(String afterDate, String toDate) {
+        return queryUpcomingSignups("e.event_date > ? AND e.event_date <= ?", afterDate, toDate);
+    }
+
+    public List<UpcomingSignup> getUpcomingSignupsForEvent(String eventId) {
+        return queryUpcomingSignups("e.id = ?", eventId);
+    }
+
+    public List<UpcomingSignup> getUpcomingSignup(String volunteerId, String eventId) {
+        return queryUpcomingSignups("e.id = ? AND s.volunteer_id = ?", eventId, volunteerId);
+    }
+
+    private List<UpcomingSignup> queryUpcomingSignups(String where, String... params) {
+        List<UpcomingSignup> signups = new ArrayList<>();
+        String sql = """
+            SELECT s.event_id, s.volunteer_id, e.event_date, e.title, v.email
+            FROM events e
+            JOIN event_signups s ON s.event_id = e.id
+            JOIN volunteers v ON v.id = s.volunteer_id
+            WHERE\s""" + where;
+
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                pstmt.setString(i + 1, params[i]);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                signups.add(new UpcomingSignup(
+                    rs.getString("event_id"),
+                    rs.getString("volunteer_id"),
+                    rs.getString("event_date"),
+                    rs.getString("title"),
+                    rs.getString("email")
+                ));
+            }
+        } catch (SQLException e) {
+            reportError("Error getting upcoming signups", e);
+        }
+        return signups;
+    }
+
+    // --- App State Methods (small persistent key/value settings) ---
+
+    public String getState(String key) {
+        String sql = "SELECT value FROM app_state WHERE key = ?";
+        
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, key);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getString("value");
+            }
+        } catch (SQLException e) {
+            reportError("Error reading app state", e);
+        }
+        return null;
+    }
+
+    public boolean putState(String key, String value) {
+        String sql = "INSERT INTO app_state (key, value) VALUES (?, ?) "
+            + "ON CONFLICT (key) DO UPDATE SET value = excluded.value";
+        
+        try (Connection conn = connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, key);
+            pstmt.setString(2, value);
+            pstmt.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            reportError("Error saving app state", e);
+            return false;
+        }
+    }
+
+    // --- Archive Methods ---
+
+    /**
+     * Moves one batch of events dated before the cutoff (and their signups)
+     * into the archive database. The live database uses WAL, and SQLite does
+     * not commit a transaction across attached files atomically in WAL mode,
+     * so the move is two transactions that each write only one file: the
+     * batch is copied into the archive, then deleted from the live tables
+     * where the live rows still match their archived copy. A crash or an
+     * edit in between leaves the event live (and briefly in both files,
+     * which readers skip); a later batch copies it again.
+     * @param cutoffDate events with event_date before this (YYYY-MM-DD) are archived
+     * @param batchSize maximum number of events to move
+     * @return how many events were selected and how many moved, or null on error
+     */
+    public ArchiveBatch archivePastEventsBatch(String cutoffDate, int batchSize) {
+        try (Connection conn = connectWithArchive();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TEMP TABLE IF NOT EXISTS archive_batch (id TEXT PRIMARY KEY)");
+            int selected;
+            conn.setAutoCommit(false);
+            try {
+                stmt.execute("DELETE FROM temp.archive_batch");
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "INSERT INTO temp.archive_batch SELECT id FROM main.events "
+                            + "WHERE event_date < ? ORDER BY event_date LIMIT ?")) {
+                    pstmt.setString(1, cutoffDate);
+                    pstmt.setInt(2, batchSize);
+                    selected = pstmt.executeUpdate();
+                }
+                if (selected == 0) {
+                    conn.commit();
+                    return new ArchiveBatch(0, 0);
+                }
+                stmt.executeUpdate("""
+                    INSERT OR REPLACE INTO archive.events
+                        (id, title, event_date, location, latitude, longitude, series_id, capacity)
+                    SELECT id, title, event_date, location, latitude, longitude, series_id, capacity FROM main.events
+                    WHERE id IN (SELECT id FROM temp.archive_batch)
+                    """);
+                stmt.executeUpdate("""
+                    INSERT OR REPLACE INTO archive.event_descriptions (event_id, compressed, body)
+                    SELECT event_id, compressed, body FROM main.event_descriptions
+                    WHERE event_id IN (SELECT id FROM temp.archive_batch)
+                    """);
+                stmt.executeUpdate("""
+                    INSERT OR REPLACE INTO archive.event_signups
+                        (event_id, volunteer_id, checked_in_at, checked_out_at, hours, hours_month, hours_location)
+                    SELECT event_id, volunteer_id, checked_in_at, checked_out_at, hours, hours_month, hours_location
+                    FROM main.event_signups
+                    WHERE event_id IN (SELECT id FROM temp.archive_batch)
+                    """);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+
+            try {
+                stmt.executeUpdate("""
+                    DELETE FROM main.event_signups AS s
+                    WHERE s.event_id IN (SELECT id FROM temp.archive_batch)
+                      AND EXISTS (SELECT 1 FROM archive.event_signups a
+                                  WHERE a.event_id = s.event_id AND a.volunteer_id = s.volunteer_id
+                                    AND a.checked_in_at IS s.checked_in_at AND a.checked_out_at IS s.checked_out_at
+                                    AND a.hours IS s.hours AND a.hours_month IS s.hours_month
+                                    AND a.hours_location IS s.hours_location)
+                    """);
+                stmt.executeUpdate("""
+                    DELETE FROM main.events AS e
+                    WHERE e.id IN (SELECT id FROM temp.archive_batch)
+                      AND NOT EXISTS (SELECT 1 FROM main.event_signups s WHERE s.event_id = e.id)
+                      AND EXISTS (SELECT 1 FROM archive.events a
+                                  WHERE a.id = e.id AND a.title IS e.title AND a.event_date IS e.event_date
+                                    AND a.location IS e.location AND a.latitude IS e.latitude
+                                    AND a.longitude IS e.longitude AND a.series_id IS e.series_id
+                                    AND a.capacity IS e.capacity)
+                      AND NOT EXISTS (SELECT 1 FROM main.event_descriptions d
+                                      WHERE d.event_id = e.id
+                                        AND NOT EXISTS (SELECT 1 FROM archive.event_descriptions ad
+                                                        WHERE ad.event_id = d.event_id
+                                                          AND ad.compressed IS d.compressed AND ad.body IS d.body))
+                    """);
+                // Counted from the batch table: update counts on events would include trigger changes
+                int moved;
+                try (ResultSet rs = stmt.executeQuery(
+                        "SELECT COUNT(*) FROM temp.archive_batch WHERE id NOT IN (SELECT id FROM main.events)")) {
+                    moved = rs.next() ? rs.getInt(1) : 0;
+                }
+                conn.commit();
+                return new ArchiveBatch(selected, moved);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            reportError("Error archiving events", e);
+            return null;
+        }
+    }
+
+    // --- Maintenance Methods ---
+
+    /**
+     * Copies the live and archive databases into two new files with SQLite's
+     * online backup, pagesPerStep pages at a time with a pause after each step.
+     * Both copies come from one read snapshot: in WAL mode that blocks no
+     * writer, and a signup committed mid-copy does not restart the backup.
+     * @return the number of pages copied, or -1 on error
+     */
+    public long backupTo(String mainDest, String archiveDest, int pagesPerStep, long pauseMs) {
+        try (Connection conn = connectWithArchive();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("BEGIN DEFERRED");
+            try {
+                // A deferred transaction takes its snapshot on first read of each database
+                stmt.executeQuery("SELECT count(*) FROM main.sqlite_master").close();
+                stmt.executeQuery("SELECT count(*) FROM archive.sqlite_master").close();
+                return runBackup(conn, "main", mainDest, pagesPerStep, pauseMs)
+                    + runBackup(conn, "archive", archiveDest, pagesPerStep, pauseMs);
+            } finally {
+                stmt.execute("COMMIT");
+            }
+        } catch (SQLException e) {
+            reportError("Error backing up database", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Runs sqlite-jdbc's online backup of one schema, through the driver's
+     * public SQLiteConnection API.
+     * @return the number of pages copied
+     */
+    private static long runBackup(Connection conn, String schema, String destFile, int pagesPerStep, long pauseMs)
+            throws SQLException {
+        // The driver reports progress after every step; pausing there spaces the steps out
+        int[] pageCount = {0};
+        DB.ProgressObserver observer = (remaining, pageTotal) -> {
+            pageCount[0] = pageTotal;
+            if (remaining > 0 && pauseMs > 0 && !Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        int rc = conn.unwrap(SQLiteConnection.class).getDatabase()
+            .backup(schema, destFile, observer, 100, BUSY_TIMEOUT_MS / 100, pagesPerStep);
+        if (rc != 0) {
+            throw new SQLException("Backup of " + schema + " failed with SQLite result code " + rc);
+        }
+        return pageCount[0];
+    }
+
+    /**
+     * Runs PRAGMA integrity_check on a backup file and, if it passes, switches
+     * the file out of WAL mode so it is a single self-contained file.
+     * @return true if the file is intact
+     */
+    public boolean verifyBackup(String file) {
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + file);
+             Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery("PRAGMA integrity_check");
+            String result = rs.next() ? rs.getString(1) : null;
+            rs.close();
+            if (!"ok".equals(result)) {
+                reportError("Backup " + file + " failed its integrity check", new SQLException(result));
+                return false;
+            }
+            stmt.execute("PRAGMA journal_mode = DELETE");
+            return true;
+        } catch (SQLException e) {
+            reportError("Error verifying backup", e);
+            return false;
+        }
+    }
+
+    /**
+     * @return true if the live database already reclaims free pages incrementally
+     */
+    public boolean isIncrementalVacuumEnabled() {
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery("PRAGMA auto_vacuum");
+            return rs.next() && rs.getInt(1) == 2; // 2 = INCREMENTAL
+        } catch (SQLException e) {
+            reportError("Error reading vacuum mode", e);
+            return false;
+        }
+    }
+
+    /**
+     * Switches an existing live database to auto_vacuum = INCREMENTAL. The
+     * mode of an existing file only changes with a full VACUUM, which holds
+     * the write lock until it finishes, so this is never run by the app
+     * itself: run "java VolunteerApp --enable-incremental-vacuum" off-hours.
+     */
+    public boolean enableIncrementalVacuum() {
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.execute("VACUUM");
+            return true;
+        } catch (SQLException e) {
+            reportError("Error enabling incremental vacuum", e);
+            return false;
+        }
+    }
+
+    /**
+     * @return the number of unused pages in the live database, or -1 on error
+     */
+    public int getFreePageCount() {
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement()) {
+            return freePages(stmt);
+        } catch (SQLException e) {
+            reportError("Error reading free page count", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Returns up to maxPages free pages to the file system, in one short write
+     * transaction. Needs incremental vacuum to be enabled.
+     * @return the number of pages released, or -1 on error
+     */
+    public int incrementalVacuum(int maxPages) {
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement()) {
+            int before = freePages(stmt);
+            // executeUpdate steps the pragma to completion; execute() would release one page
+            stmt.executeUpdate("PRAGMA incremental_vacuum(" + maxPages + ")");
+            return before - freePages(stmt);
+        } catch (SQLException e) {
+            reportError("Error running incremental vacuum", e);
+            return -1;
+        }
+    }
+
+    private static int freePages(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA freelist_count")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Refreshes the query planner statistics. analysis_limit samples each
+     * index instead of reading it fully, which keeps the write lock short.
+     */
+    public boolean analyze(int analysisLimit) {
+        try (Connection conn = connect();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA analysis_limit = " + analysisLimit);
+            stmt.execute("ANALYZE");
+            return true;
+        } catch (SQLException e) {
+            reportError("Error analyzing database", e);
+            return false;
         }
-        return eventIds;
     }
 }
@@ -0,0 +1,441 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DuplicateVolunteerJob (Tool)
+ * Finds volunteers who registered more than once and merges them.
+ *
+ * Usage:
+ *   java DuplicateVolunteerJob scan  [--db volunteer_hub.db] [--out duplicate_proposals.csv]
+ *                                    [--threshold 0.90] [--threads <cores>]
+ *   java DuplicateVolunteerJob merge [--db volunteer_hub.db] [--in duplicate_proposals.csv] [--batch 200]
+ *
+ * 'scan' streams the volunteers page by page and normalizes each email
+ * (case, and "+tag" suffixes and dots only at providers known to ignore
+ * them). Only volunteers that share a blocking key are compared: the email
+ * local part without any "+tag", or the Soundex codes of their first and last
+ * names. A block too large to compare pair by pair is split by a second key.
+ * Candidate pairs are scored in parallel with Jaro-Winkler similarity. Pairs
+ * at or above the threshold are written to a CSV proposal, and pairs with the
+ * same normalized email are pre-confirmed.
+ *
+ * 'merge' reads the proposal back and merges every pair whose 'confirm'
+ * column is "yes", in batches of one transaction each. Chains such as A~B
+ * and B~C are merged into the volunteer with the smallest ID.
+ */
+public class DuplicateVolunteerJob {
+
+    private static final int PAGE_SIZE = 10000;
+    private static final int MAX_BLOCK_SIZE = 500; // larger blocks are split by a second key
+    private static final long PAUSE_BETWEEN_BATCHES_MS = 50;
+    private static final String SAME_EMAIL = "same email"; // pre-confirmed
+    // Providers that deliver "name+tag@" to "name@"; Gmail also ignores dots
+    private static final Set<String> PLUS_TAG_DOMAINS = Set.of("gmail.com", "googlemail.com",
+        "outlook.com", "hotmail.com", "live.com", "icloud.com", "me.com", "fastmail.com", "protonmail.com", "proton.me");
+    private static final String[] CSV_HEADER = {"keep_id", "duplicate_id", "score", "reason",
+        "keep_name", "keep_email", "duplicate_name", "duplicate_email", "confirm"};
+
+    // --- Options ---
+    private String dbFile = "volunteer_hub.db";
+    private Path proposalFile = Path.of("duplicate_proposals.csv");
+    private double threshold = 0.90;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 200;
+
+    private DatabaseManager dbManager;
+
+    // --- Scanned volunteers (parallel arrays, indexed in ID order) ---
+    private String[] ids;
+    private String[] names;   // normalized
+    private String[] emails;  // normalized
+    private String[] locals;  // email local part without punctuation
+    private String[] firstNames, lastNames;
+    private String[] rawNames, rawEmails; // as stored, for the proposal
+
+    /** A scored candidate pair; i < j, so the kept volunteer (smaller ID) is i. */
+    private static class Candidate {
+        final int i, j;
+        final double score;
+        final String reason;
+        Candidate(int i, int j, double score, String reason) {
+            this.i = i; this.j = j; this.score = score; this.reason = reason;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || !(args[0].equals("scan") || args[0].equals("merge"))) {
+            System.err.println("Usage: java DuplicateVolunteerJob scan|merge [options]");
+            System.exit(2);
+        }
+        DuplicateVolunteerJob job = new DuplicateVolunteerJob();
+        job.parseArgs(args);
+        job.dbManager = new DatabaseManager("jdbc:sqlite:" + job.dbFile);
+        job.dbManager.createTables();
+        if (args[0].equals("scan")) {
+            job.scan();
+        } else {
+            job.merge();
+        }
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--db" -> dbFile = args[++i];
+                case "--out", "--in" -> proposalFile = Path.of(args[++i]);
+                case "--threshold" -> threshold = Double.parseDouble(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--batch" -> batchSize = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+    }
+
+    // --- Scan ---
+
+    private void scan() throws Exception {
+        long started = System.nanoTime();
+        load();
+        long loaded = System.nanoTime();
+
+        List<int[]> blocks = buildBlocks();
+
+        // Same pair can appear in two blocks; keep it once
+        Map<Long, Candidate> candidates = new ConcurrentHashMap<>();
+        AtomicLong compared = new AtomicLong();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> blocks.parallelStream().forEach(block -> {
+                for (int a = 0; a < block.length; a++) {
+                    for (int b = a + 1; b < block.length; b++) {
+                        int i = Math.min(block[a], block[b]), j = Math.max(block[a], block[b]);
+                        Candidate candidate = score(i, j);
+                        if (candidate != null) {
+                            candidates.putIfAbsent(((long) i << 32) | j, candidate);
+                        }
+                    }
+                }
+                compared.addAndGet((long) block.length * (block.length - 1) / 2);
+            })).get();
+        } finally {
+            pool.shutdown();
+        }
+        long scored = System.nanoTime();
+
+        List<Candidate> proposals = new ArrayList<>(candidates.values());
+        proposals.sort((x, y) -> x.i != y.i ? Integer.compare(x.i, y.i) : Integer.compare(x.j, y.j));
+        writeProposals(proposals);
+
+        System.out.printf("Volunteers: %d, blocks: %d, pairs compared: %d, proposed merges: %d%n",
+            ids.length, blocks.size(), compared.get(), proposals.size());
+        System.out.printf("Load %.1fs, score %.1fs on %d threads. Proposal written to %s%n",
+            (loaded - started) / 1e9, (scored - loaded) / 1e9, threads, proposalFile);
+    }
+
+    private void load() {
+        List<String> idList = new ArrayList<>(), nameList = new ArrayList<>(), emailList = new ArrayList<>();
+        List<String> rawNameList = new ArrayList<>(), rawEmailList = new ArrayList<>();
+        String afterId = null;
+        while (true) {
+            List<DatabaseManager.Volunteer> page = dbManager.getVolunteersPage(afterId, PAGE_SIZE);
+            for (DatabaseManager.Volunteer v : page) {
+                idList.add(v.id);
+                nameList.add(VolunteerNameIndex.normalize(v.name));
+                emailList.add(normalizeEmail(v.email));
+                rawNameList.add(v.name);
+                rawEmailList.add(v.email);
+            }
+            if (page.size() < PAGE_SIZE) break;
+            afterId = page.get(page.size() - 1).id;
+        }
+        ids = idList.toArray(new String[0]);
+        names = nameList.toArray(new String[0]);
+        emails = emailList.toArray(new String[0]);
+        // Precomputed once, as every volunteer is compared many times
+        locals = new String[ids.length];
+        firstNames = new String[ids.length];
+        lastNames = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            locals[i] = comparableLocalPart(emails[i]);
+            int firstSpace = names[i].indexOf(' '), lastSpace = names[i].lastIndexOf(' ');
+            firstNames[i] = firstSpace < 0 ? names[i] : names[i].substring(0, firstSpace);
+            lastNames[i] = lastSpace < 0 ? "" : names[i].substring(lastSpace + 1);
+        }
+        rawNames = rawNameList.toArray(new String[0]);
+        rawEmails = rawEmailList.toArray(new String[0]);
+    }
+
+    private List<int[]> buildBlocks() {
+        Map<String, List<Integer>> byKey = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            String local = untaggedLocalPart(emails[i]);
+            if (local.length() >= 3) {
+                byKey.computeIfAbsent("e:" + local, k -> new ArrayList<>()).add(i);
+            }
+            if (!lastNames[i].isEmpty()) {
+                String key = "n:" + soundex(firstNames[i]) + soundex(lastNames[i]);
+                byKey.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+        List<int[]> blocks = new ArrayList<>();
+        int split = 0, skipped = 0;
+        for (Map.Entry<String, List<Integer>> entry : byKey.entrySet()) {
+            List<Integer> members = entry.getValue();
+            if (members.size() < 2) continue;
+            if (members.size() <= MAX_BLOCK_SIZE) {
+                blocks.add(members.stream().mapToInt(Integer::intValue).toArray());
+                continue;
+            }
+            // Members of an email block share the local part, so split those by domain;
+            // split name blocks by the first letter of the email local part
+            boolean emailBlock = entry.getKey().startsWith("e:");
+            Map<String, List<Integer>> parts = new HashMap<>();
+            for (int i : members) {
+                String key = emailBlock ? domain(emails[i]) : locals[i].isEmpty() ? "" : locals[i].substring(0, 1);
+                parts.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+            split++;
+            for (List<Integer> part : parts.values()) {
+                if (part.size() < 2) continue;
+                if (part.size() > MAX_BLOCK_SIZE) {
+                    skipped++;
+                    continue;
+                }
+                blocks.add(part.stream().mapToInt(Integer::intValue).toArray());
+            }
+        }
+        if (split > 0) {
+            System.out.println("Split " + split + " block(s) larger than " + MAX_BLOCK_SIZE + " volunteers"
+                + (skipped > 0 ? "; skipped " + skipped + " part(s) still too large." : "."));
+        }
+        return blocks;
+    }
+
+    private Candidate score(int i, int j) {
+        if (emails[i].equals(emails[j])) {
+            return new Candidate(i, j, 1.0, SAME_EMAIL);
+        }
+        // Both the name and the email must look alike. First and last names are
+        // compared separately, so a shared first name alone doesn't count.
+        double nameScore = (lastNames[i].isEmpty() || lastNames[j].isEmpty())
+            ? jaroWinkler(names[i], names[j])
+            : Math.min(jaroWinkler(firstNames[i], firstNames[j]), jaroWinkler(lastNames[i], lastNames[j]));
+        double score = Math.min(nameScore, jaroWinkler(locals[i], locals[j]));
+        return score >= threshold ? new Candidate(i, j, score, "similar name and email") : null;
+    }
+
+    private void writeProposals(List<Candidate> proposals) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(proposalFile, StandardCharsets.UTF_8)) {
+            out.write(String.join(",", CSV_HEADER));
+            out.newLine();
+            for (Candidate c : proposals) {
+                // Show the stored values, not the normalized ones, to whoever confirms
+                String[] row = {ids[c.i], ids[c.j], String.format("%.3f", c.score), c.reason,
+                    rawNames[c.i], rawEmails[c.i], rawNames[c.j], rawEmails[c.j], c.reason.equals(SAME_EMAIL) ? "yes" : ""};
+                for (int k = 0; k < row.length; k++) {
+                    if (k > 0) out.write(',');
+                    out.write(csvQuote(row[k]));
+                }
+                out.newLine();
+            }
+        }
+    }
+
+    // --- Merge ---
+
+    private void merge() throws IOException {
+        // Resolve chains so every duplicate maps to the smallest ID in its group
+        Map<String, String> parent = new HashMap<>();
+        try (BufferedReader in = Files.newBufferedReader(proposalFile, StandardCharsets.UTF_8)) {
+            in.readLine(); // header
+            String line;
+            while ((line = in.readLine()) != null) {
+                List<String> row = parseCsvLine(line);
+                if (row.size() < CSV_HEADER.length || !row.get(8).trim().equalsIgnoreCase("yes")) continue;
+                String a = find(parent, row.get(0)), b = find(parent, row.get(1));
+                if (a.equals(b)) continue;
+                if (a.compareTo(b) < 0) parent.put(b, a); else parent.put(a, b);
+            }
+        }
+        List<String[]> pairs = new ArrayList<>();
+        for (String id : parent.keySet()) {
+            String root = find(parent, id);
+            if (!root.equals(id)) pairs.add(new String[]{root, id});
+        }
+
+        long started = System.nanoTime();
+        int merged = 0;
+        for (int from = 0; from < pairs.size(); from += batchSize) {
+            int n = dbManager.mergeVolunteers(pairs.subList(from, Math.min(from + batchSize, pairs.size())));
+            if (n < 0) {
+                System.err.println("Stopping: a merge batch failed. " + merged + " duplicate(s) merged so far.");
+                System.exit(1);
+            }
+            merged += n;
+            try {
+                Thread.sleep(PAUSE_BETWEEN_BATCHES_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        System.out.printf("Merged %d duplicate(s) of %d confirmed in %.1fs.%n",
+            merged, pairs.size(), (System.nanoTime() - started) / 1e9);
+    }
+
+    private static String find(Map<String, String> parent, String id) {
+        String root = id;
+        while (parent.containsKey(root) && !parent.get(root).equals(root)) {
+            root = parent.get(root);
+        }
+        parent.putIfAbsent(id, root);
+        if (!id.equals(root)) parent.put(id, root);
+        return root;
+    }
+
+    // --- Normalization and similarity ---
+
+    /**
+     * Lower-cases and trims an email. Only for providers known to deliver
+     * "name+tag@" to "name@" is the tag dropped, and only for Gmail are dots
+     * in the local part dropped, so two addresses that normalize alike reach
+     * the same mailbox. Elsewhere "+tag" may be a different mailbox, so such
+     * pairs are left to scoring.
+     */
+    static String normalizeEmail(String email) {
+        if (email == null) return "";
+        String e = email.trim().toLowerCase();
+        int at = e.lastIndexOf('@');
+        if (at < 0) return e;
+        String local = e.substring(0, at), domain = e.substring(at + 1);
+        if (PLUS_TAG_DOMAINS.contains(domain)) {
+            int plus = local.indexOf('+');
+            if (plus > 0) local = local.substring(0, plus);
+        }
+        if (domain.equals("gmail.com") || domain.equals("googlemail.com")) {
+            local = local.replace(".", "");
+            domain = "gmail.com";
+        }
+        return local + "@" + domain;
+    }
+
+    // "m.lopez", "m_lopez" and "m.lopez+club" are usually the same person at any provider
+    private static String comparableLocalPart(String email) {
+        return untaggedLocalPart(email).replaceAll("[^a-z0-9]", "");
+    }
+
+    private static String untaggedLocalPart(String email) {
+        int at = email.lastIndexOf('@');
+        String local = at < 0 ? email : email.substring(0, at);
+        int plus = local.indexOf('+');
+        return plus > 0 ? local.substring(0, plus) : local;
+    }
+
+    private static String domain(String email) {
+        return email.substring(email.lastIndexOf('@') + 1);
+    }
+
+    /** American Soundex: first letter plus three digits, e.g. "Robert" -> "R163". */
+    static String soundex(String word) {
+        String codes = "01230120022455012623010202"; // a..z
+        StringBuilder sb = new StringBuilder(4);
+        char last = 0;
+        for (char c : word.toCharArray()) {
+            if (c < 'a' || c > 'z') continue;
+            char code = codes.charAt(c - 'a');
+            if (sb.length() == 0) {
+                sb.append(Character.toUpperCase(c));
+            } else if (code != '0' && code != last) {
+                sb.append(code);
+                if (sb.length() == 4) break;
+            }
+            if (c != 'h' && c != 'w') last = code;
+        }
+        if (sb.length() == 0) return "";
+        while (sb.length() < 4) sb.append('0');
+        return sb.toString();
+    }
+
+    static double jaroWinkler(String s1, String s2) {
+        if (s1.equals(s2)) return 1.0;
+        int len1 = s1.length(), len2 = s2.length();
+        if (len1 == 0 || len2 == 0) return 0.0;
+
+        int window = Math.max(0, Math.max(len1, len2) / 2 - 1);
+        boolean[] matched1 = new boolean[len1], matched2 = new boolean[len2];
+        int matches = 0;
+        for (int i = 0; i < len1; i++) {
+            int from = Math.max(0, i - window), to = Math.min(len2 - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!matched2[j] && s1.charAt(i) == s2.charAt(j)) {
+                    matched1[i] = matched2[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) return 0.0;
+
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < len1; i++) {
+            if (!matched1[i]) continue;
+            while (!matched2[j]) j++;
+            if (s1.charAt(i) != s2.charAt(j)) transpositions++;
+            j++;
+        }
+        double m = matches;
+        double jaro = (m / len1 + m / len2 + (m - transpositions / 2.0) / m) / 3.0;
+
+        int prefix = 0;
+        while (prefix < Math.min(4, Math.min(len1, len2)) && s1.charAt(prefix) == s2.charAt(prefix)) prefix++;
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+
+    // --- CSV ---
+
+    private static String csvQuote(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) return value;
+        return "\"" + value.replace("\"", "\"\"").replace("\n", " ") + "\"";
+    }
+
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,75 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Gazetteer (Backend)
+ * Resolves free-text event locations to latitude/longitude using a local
+ * CSV file, so no network geocoding is ever needed. Each line of the file is
+ * "name,latitude,longitude"; blank lines and lines starting with '#' are
+ * ignored. A missing file simply means no location can be resolved.
+ * It contains NO Swing code.
+ */
+public class Gazetteer {
+
+    private final Map<String, double[]> places = new HashMap<>();
+
+    public Gazetteer(String fileName) {
+        Path path = Path.of(fileName);
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+
+                // The name itself may contain commas, so split from the right
+                int lonComma = line.lastIndexOf(',');
+                int latComma = (lonComma > 0) ? line.lastIndexOf(',', lonComma - 1) : -1;
+                if (latComma <= 0) continue;
+                try {
+                    double lat = Double.parseDouble(line.substring(latComma + 1, lonComma).trim());
+                    double lon = Double.parseDouble(line.substring(lonComma + 1).trim());
+                    places.put(normalize(line.substring(0, latComma)), new double[]{lat, lon});
+                } catch (NumberFormatException e) {
+                    // Skip malformed lines
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading gazetteer: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Looks up a location. The full text is tried first, then each
+     * comma-separated part from the most specific (first) to the least,
+     * so "Main Hall, Springfield" falls back to "Springfield".
+     * @return {latitude, longitude}, or null if the place is unknown
+     */
+    public double[] resolve(String location) {
+        if (location == null) return null;
+        double[] coords = places.get(normalize(location));
+        if (coords != null) return coords;
+
+        for (String part : location.split(",")) {
+            coords = places.get(normalize(part));
+            if (coords != null) return coords;
+        }
+        return null;
+    }
+
+    public int size() {
+        return places.size();
+    }
+
+    private static String normalize(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
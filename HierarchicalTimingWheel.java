@@ -0,0 +1,137 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HierarchicalTimingWheel (Backend)
+ * Holds a large number of timers with O(1) insert and cancel. Level 0 has
+ * one slot per tick; each higher level has slots 64 times wider. A timer is
+ * placed on the lowest level whose range covers it and is moved ("cascaded")
+ * to finer levels as its time approaches, so advancing the clock only ever
+ * touches the timers that are actually due.
+ *
+ * The wheel has no thread of its own: the owner calls advance() periodically.
+ * It is not thread-safe; callers synchronize externally.
+ * It contains NO Swing code.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS; // 64 slots per level
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    /** Handle returned by schedule(); cancelled timers are dropped lazily. */
+    public static class Timer<T> {
+        public final long deadlineMs;
+        public final T item;
+        private final long tick;
+        private boolean cancelled;
+
+        private Timer(long deadlineMs, long tick, T item) {
+            this.deadlineMs = deadlineMs; this.tick = tick; this.item = item;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private final long tickMs;
+    private final List<Timer<T>>[][] levels;
+    private final List<Timer<T>> overflow = new ArrayList<>(); // beyond the top level's range
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HierarchicalTimingWheel(long tickMs, int levelCount, long startMs) {
+        this.tickMs = tickMs;
+        this.levels = new List[levelCount][SLOTS];
+        this.currentTick = startMs / tickMs;
+    }
+
+    /**
+     * Schedules an item. A deadline that has already passed is due on the
+     * next advance().
+     */
+    public Timer<T> schedule(long deadlineMs, T item) {
+        long tick = Math.max(deadlineMs / tickMs, currentTick + 1);
+        Timer<T> timer = new Timer<>(deadlineMs, tick, item);
+        place(timer);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Moves the clock forward to nowMs and returns every live timer that fell due,
+     * in deadline order within each tick.
+     */
+    public List<Timer<T>> advance(long nowMs) {
+        List<Timer<T>> due = new ArrayList<>();
+        long targetTick = nowMs / tickMs;
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // Entering a new period of a higher level: cascade its slot downwards
+            for (int level = levels.length - 1; level >= 1; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    if (level == levels.length - 1 && !overflow.isEmpty()) {
+                        List<Timer<T>> pending = new ArrayList<>(overflow);
+                        overflow.clear();
+                        pending.forEach(this::replace);
+                    }
+                    int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                    List<Timer<T>> bucket = levels[level][slot];
+                    if (bucket != null) {
+                        levels[level][slot] = null;
+                        bucket.forEach(this::replace);
+                    }
+                }
+            }
+
+            int slot = (int) (currentTick & SLOT_MASK);
+            List<Timer<T>> bucket = levels[0][slot];
+            if (bucket != null) {
+                levels[0][slot] = null;
+                for (Timer<T> timer : bucket) {
+                    size--;
+                    if (!timer.cancelled) {
+                        due.add(timer);
+                    }
+                }
+            }
+        }
+        due.sort((a, b) -> Long.compare(a.deadlineMs, b.deadlineMs));
+        return due;
+    }
+
+    /** Number of timers held, including cancelled ones not yet dropped. */
+    public int size() {
+        return size;
+    }
+
+    private void replace(Timer<T> timer) {
+        if (timer.cancelled) {
+            size--;
+        } else {
+            place(timer);
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long delta = timer.tick - currentTick;
+        for (int level = 0; level < levels.length; level++) {
+            if (delta < (1L << (SLOT_BITS * (level + 1)))) {
+                int slot = (int) ((timer.tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                if (levels[level][slot] == null) {
+                    levels[level][slot] = new ArrayList<>();
+                }
+                levels[level][slot].add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+}
@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * MaintenanceService (Backend)
+ * Once a day, while the app keeps running: takes an online backup of the live
+ * and archive databases, returns free pages left behind by deletes to the file
+ * system, and refreshes the query planner statistics.
+ *
+ * Backups are copied a few pages per step from one read snapshot, so writers
+ * are never locked out, and are written to a ".part" directory that is only
+ * renamed to its final name after an integrity check. The newest
+ * BACKUPS_TO_KEEP are kept. Free pages are released in small incremental
+ * vacuum steps. New databases are created with incremental vacuum on; an
+ * older file is left alone (its free pages are reported as not released)
+ * until it is converted off-hours with "java VolunteerApp
+ * --enable-incremental-vacuum", because that needs a full VACUUM.
+ *
+ * While a run is in progress a probe writes to app_state five times a
+ * second; the slowest of those writes is reported as the longest writer
+ * stall the run caused. A run that throws is logged and the next one still
+ * happens on schedule.
+ * It contains NO Swing code.
+ */
+public class MaintenanceService {
+
+    private static final long RUN_INTERVAL_HOURS = 24;
+    private static final long INITIAL_DELAY_MINUTES = 10;
+    private static final int BACKUP_PAGES_PER_STEP = 256;
+    private static final int VACUUM_PAGES_PER_STEP = 256;
+    private static final long PAUSE_BETWEEN_STEPS_MS = 20;
+    private static final int ANALYSIS_LIMIT = 1000;
+    private static final int BACKUPS_TO_KEEP = 7;
+    private static final long PROBE_INTERVAL_MS = 200;
+    private static final String BACKUP_DIR = "backups";
+    private static final String PROBE_KEY = "maintenance.probe";
+    private static final String LAST_RUN_KEY = "maintenance.last_run";
+    private static final DateTimeFormatter BACKUP_NAME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    /** What one run did. */
+    public static class Report {
+        public Path backup;             // null if the backup failed
+        public long pagesCopied;
+        public boolean backupVerified;
+        public boolean incrementalVacuumEnabled;
+        public int pagesFreed;
+        public boolean analyzed;
+        public long durationMs;
+        public long maxWriterStallMs;
+
+        @Override
+        public String toString() {
+            return "Maintenance finished in " + durationMs + " ms: "
+                + (backup != null ? "backup " + backup.getFileName() + " (" + pagesCopied + " pages"
+                    + (backupVerified ? ", verified)" : ", FAILED integrity check)") : "backup FAILED")
+                + (incrementalVacuumEnabled ? ", " + pagesFreed + " free pages released"
+                    : ", free pages not released (incremental vacuum is off)")
+                + (analyzed ? ", statistics refreshed" : "")
+                + ", longest writer stall " + maxWriterStallMs + " ms";
+        }
+    }
+
+    private final DatabaseManager dbManager;
+    private final Path backupDir;
+    private final ScheduledExecutorService scheduler;
+
+    public MaintenanceService(DatabaseManager dbManager) {
+        this(dbManager, Path.of(BACKUP_DIR));
+    }
+
+    public MaintenanceService(DatabaseManager dbManager, Path backupDir) {
+        this.dbManager = dbManager;
+        this.backupDir = backupDir;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Schedules the first run a few minutes after startup and then once a day.
+     */
+    public void start() {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                runOnce();
+            } catch (RuntimeException e) {
+                System.err.println("Maintenance run failed: " + e);
+            }
+        }, INITIAL_DELAY_MINUTES, RUN_INTERVAL_HOURS * 60, TimeUnit.MINUTES);
+    }
+
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Backs up, compacts and analyzes the database once, and reports the result.
+     */
+    public Report runOnce() {
+        Report report = new Report();
+        long start = System.currentTimeMillis();
+        StallProbe probe = new StallProbe();
+        probe.start();
+        try {
+            backUp(report);
+            compact(report);
+            report.analyzed = dbManager.analyze(ANALYSIS_LIMIT);
+        } finally {
+            report.maxWriterStallMs = probe.finish();
+        }
+        report.durationMs = System.currentTimeMillis() - start;
+
+        System.out.println(report);
+        dbManager.putState(LAST_RUN_KEY, LocalDateTime.now() + " " + report);
+        return report;
+    }
+
+    private void backUp(Report report) {
+        String name = LocalDateTime.now().format(BACKUP_NAME);
+        Path partial = backupDir.resolve(name + ".part");
+        Path finished = backupDir.resolve(name);
+        try {
+            Files.createDirectories(partial);
+            Path mainCopy = partial.resolve("main.db");
+            Path archiveCopy = partial.resolve("archive.db");
+            long pages = dbManager.backupTo(mainCopy.toString(), archiveCopy.toString(),
+                BACKUP_PAGES_PER_STEP, PAUSE_BETWEEN_STEPS_MS);
+            if (pages < 0) {
+                deleteRecursively(partial);
+                return;
+            }
+            report.pagesCopied = pages;
+            report.backupVerified = dbManager.verifyBackup(mainCopy.toString())
+                && dbManager.verifyBackup(archiveCopy.toString());
+            if (!report.backupVerified) {
+                // Keep the bad copy for inspection, but never let it count as a backup
+                report.backup = partial;
+                return;
+            }
+            Files.move(partial, finished);
+            report.backup = finished;
+            rotate();
+        } catch (IOException e) {
+            System.err.println("Error writing backup: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes all but the newest BACKUPS_TO_KEEP finished backups, plus any
+     * partial ones older than the newest finished backup.
+     */
+    private void rotate() throws IOException {
+        List<Path> finished = new ArrayList<>();
+        List<Path> partial = new ArrayList<>();
+        try (Stream<Path> entries = Files.list(backupDir)) {
+            entries.filter(Files::isDirectory).forEach(dir ->
+                (dir.getFileName().toString().endsWith(".part") ? partial : finished).add(dir));
+        }
+        // Names are timestamps, so they sort oldest first
+        finished.sort(Comparator.comparing(Path::getFileName));
+        for (int i = 0; i < finished.size() - BACKUPS_TO_KEEP; i++) {
+            deleteRecursively(finished.get(i));
+        }
+        String newest = finished.get(finished.size() - 1).getFileName().toString();
+        for (Path dir : partial) {
+            if (dir.getFileName().toString().compareTo(newest) < 0) {
+                deleteRecursively(dir);
+            }
+        }
+    }
+
+    private void compact(Report report) {
+        report.incrementalVacuumEnabled = dbManager.isIncrementalVacuumEnabled();
+        if (!report.incrementalVacuumEnabled) return;
+        while (!Thread.currentThread().isInterrupted()) {
+            int freed = dbManager.incrementalVacuum(VACUUM_PAGES_PER_STEP);
+            if (freed <= 0) break;
+            report.pagesFreed += freed;
+            if (freed < VACUUM_PAGES_PER_STEP) break;
+            try {
+                Thread.sleep(PAUSE_BETWEEN_STEPS_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        if (!Files.exists(dir)) return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    /**
+     * Times a tiny write every PROBE_INTERVAL_MS, standing in for a volunteer
+     * signing up while maintenance runs.
+     */
+    private class StallProbe extends Thread {
+        private volatile boolean running = true;
+        private long maxStallMs;
+
+        StallProbe() {
+            super("maintenance-stall-probe");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                long t0 = System.nanoTime();
+                dbManager.putState(PROBE_KEY, Long.toString(System.currentTimeMillis()));
+                maxStallMs = Math.max(maxStallMs, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+                try {
+                    Thread.sleep(PROBE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        /** Stops the probe and returns the slowest write it saw. */
+        long finish() {
+            running = false;
+            try {
+                join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return maxStallMs;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * ReminderScheduler (Backend)
+ * Sends reminders 24 hours and 1 hour before each event to every volunteer
+ * signed up for it. Only signups for events inside a short look-ahead horizon
+ * are held in memory, in a hierarchical timing wheel; the horizon is extended
+ * one day at a time. Date changes, deletions and new signups are applied
+ * incrementally through DatabaseManager's change listener.
+ *
+ * Due reminders are appended in batches to a local outbox file (one JSON object
+ * per line), which stands in for an email gateway. After each batch the
+ * watermark (time up to which reminders have been written) is saved, so a
+ * restart only reloads the horizon and resumes from the watermark. A crash
+ * between writing a batch and saving the watermark can repeat that batch; a
+ * batch that fails to write is put back in the wheel and retried next tick.
+ * The outbox is written, and the database queried, without holding the lock
+ * that guards the wheel, so listeners on other threads are not held up.
+ * It contains NO Swing code.
+ */
+public class ReminderScheduler implements DatabaseManager.ChangeListener {
+
+    // Events have a date but no time; reminders assume this start time.
+    static final LocalTime EVENT_START_TIME = LocalTime.of(9, 0);
+    private static final long[] REMINDER_OFFSETS_MS = {TimeUnit.HOURS.toMillis(24), TimeUnit.HOURS.toMillis(1)};
+    private static final String[] REMINDER_KINDS = {"24h", "1h"};
+
+    private static final long TICK_MS = TimeUnit.MINUTES.toMillis(1);
+    private static final int WHEEL_LEVELS = 3; // 64 min, ~68 h, ~182 days
+    private static final int HORIZON_DAYS = 3;
+    private static final String WATERMARK_KEY = "reminders.watermark";
+    private static final String OUTBOX_DIR = "reminder_outbox";
+
+    /** One pending reminder for one signup. */
+    static class Reminder {
+        final DatabaseManager.UpcomingSignup signup;
+        final String kind;
+        Reminder(DatabaseManager.UpcomingSignup signup, String kind) {
+            this.signup = signup; this.kind = kind;
+        }
+    }
+
+    private final DatabaseManager dbManager;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final ScheduledExecutorService ticker;
+    private final Path outboxDir;
+
+    // All fields below are guarded by 'this'
+    private HierarchicalTimingWheel<Reminder> wheel;
+    private final Map<String, List<HierarchicalTimingWheel.Timer<Reminder>>> timersByEvent = new HashMap<>();
+    private long watermarkMs;
+    private LocalDate loadedThrough; // signups for events up to this date are in the wheel
+    private long changeCount; // bumped by every listener call that cancels timers
+
+    public ReminderScheduler(DatabaseManager dbManager) {
+        this(dbManager, Path.of(OUTBOX_DIR));
+    }
+
+    public ReminderScheduler(DatabaseManager dbManager, Path outboxDir) {
+        this.dbManager = dbManager;
+        this.outboxDir = outboxDir;
+        this.ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "reminder-scheduler");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Recovers from the saved watermark, loads the horizon and starts ticking.
+     */
+    public void start() {
+        recover(System.currentTimeMillis());
+        dbManager.addChangeListener(this);
+        ticker.scheduleAtFixedRate(() -> tick(System.currentTimeMillis()), TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() {
+        dbManager.removeChangeListener(this);
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Rebuilds the wheel. Reminders at or before the watermark were already
+     * written; those between the watermark and now are due on the next tick.
+     */
+    synchronized void recover(long nowMs) {
+        String saved = dbManager.getState(WATERMARK_KEY);
+        watermarkMs = (saved != null) ? Long.parseLong(saved) : nowMs;
+        wheel = new HierarchicalTimingWheel<>(TICK_MS, WHEEL_LEVELS, Math.min(watermarkMs, nowMs));
+        timersByEvent.clear();
+
+        // Reminders fire up to 24h before the event, so start one day before the watermark
+        LocalDate from = Instant.ofEpochMilli(watermarkMs).atZone(zone).toLocalDate().minusDays(1);
+        loadedThrough = LocalDate.now(zone).plusDays(HORIZON_DAYS);
+        for (DatabaseManager.UpcomingSignup signup : dbManager.getUpcomingSignups(from.toString(), loadedThrough.toString())) {
+            schedule(signup);
+        }
+    }
+
+    /**
+     * Writes every due reminder to the outbox in one batch, then extends the
+     * horizon if the day has rolled over. Due timers are only forgotten once
+     * the batch is written; if writing fails they are scheduled again.
+     * @return the number of reminders written
+     */
+    int tick(long nowMs) {
+        List<HierarchicalTimingWheel.Timer<Reminder>> due;
+        synchronized (this) {
+            due = wheel.advance(nowMs);
+        }
+        try {
+            if (!due.isEmpty()) {
+                writeBatch(due, nowMs);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing reminder outbox: " + e.getMessage());
+            synchronized (this) {
+                due.forEach(this::reschedule);
+            }
+            return 0;
+        }
+
+        LocalDate from;
+        synchronized (this) {
+            due.forEach(this::forget);
+            watermarkMs = Math.max(watermarkMs, nowMs);
+            from = loadedThrough;
+        }
+        dbManager.putState(WATERMARK_KEY, Long.toString(nowMs));
+
+        LocalDate horizon = LocalDate.now(zone).plusDays(HORIZON_DAYS);
+        if (horizon.isAfter(from)) {
+            querySignups(() -> dbManager.getUpcomingSignups(from.toString(), horizon.toString()), signups -> {
+                signups.forEach(this::schedule);
+                if (horizon.isAfter(loadedThrough)) loadedThrough = horizon;
+            });
+        }
+        return due.size();
+    }
+
+    public synchronized int pendingCount() {
+        return wheel.size();
+    }
+
+    // --- DatabaseManager.ChangeListener ---
+
+    @Override
+    public void eventDateChanged(String eventId, String newDate) {
+        querySignups(() -> isWithinHorizon(newDate) ? dbManager.getUpcomingSignupsForEvent(eventId) : List.of(),
+            signups -> {
+                cancelEvent(eventId);
+                if (isWithinHorizon(newDate)) {
+                    signups.forEach(this::schedule);
+                }
+            });
+    }
+
+    @Override
+    public synchronized void eventDeleted(String eventId) {
+        cancelEvent(eventId);
+    }
+
+    @Override
+    public synchronized void seriesDeleted(String seriesId) {
+        String prefix = seriesId + "@";
+        List<String> eventIds = new ArrayList<>();
+        for (String eventId : timersByEvent.keySet()) {
+            if (eventId.startsWith(prefix)) eventIds.add(eventId);
+        }
+        eventIds.forEach(this::cancelEvent);
+    }
+
+    @Override
+    public void signupAdded(String volunteerId, String eventId) {
+        querySignups(() -> dbManager.getUpcomingSignup(volunteerId, eventId), this::scheduleWithinHorizon);
+    }
+
+    @Override
+    public synchronized void signupRemoved(String volunteerId, String eventId) {
+        cancelSignup(volunteerId, eventId);
+    }
+
+    @Override
+    public void volunteerMerged(String duplicateId, String keptId) {
+        // The duplicate's signups now belong to the kept volunteer (and their email)
+        List<String> eventIds = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<String, List<HierarchicalTimingWheel.Timer<Reminder>>> entry : timersByEvent.entrySet()) {
+                for (HierarchicalTimingWheel.Timer<Reminder> timer : entry.getValue()) {
+                    if (timer.item.signup.volunteerId.equals(duplicateId)) {
+                        eventIds.add(entry.getKey());
+                        break;
+                    }
+                }
+            }
+        }
+        for (String eventId : eventIds) {
+            querySignups(() -> dbManager.getUpcomingSignup(keptId, eventId), signups -> {
+                cancelSignup(duplicateId, eventId);
+                cancelSignup(keptId, eventId);
+                scheduleWithinHorizon(signups);
+            });
+        }
+    }
+
+    // --- Internals ---
+
+    private synchronized boolean isWithinHorizon(String eventDate) {
+        return eventDate != null && eventDate.compareTo(loadedThrough.toString()) <= 0;
+    }
+
+    /**
+     * Runs a signup query without holding the lock, then applies the result
+     * under it. If timers were cancelled while the query ran, its result may
+     * be stale, so the query is repeated under the lock before applying it.
+     */
+    private void querySignups(Supplier<List<DatabaseManager.UpcomingSignup>> query,
+                              Consumer<List<DatabaseManager.UpcomingSignup>> apply) {
+        long before;
+        synchronized (this) {
+            before = changeCount;
+        }
+        List<DatabaseManager.UpcomingSignup> signups = query.get();
+        synchronized (this) {
+            if (changeCount != before) {
+                signups = query.get();
+            }
+            apply.accept(signups);
+        }
+    }
+
+    private void scheduleWithinHorizon(List<DatabaseManager.UpcomingSignup> signups) {
+        for (DatabaseManager.UpcomingSignup signup : signups) {
+            if (isWithinHorizon(signup.eventDate)) {
+                schedule(signup);
+            }
+        }
+    }
+
+    private void schedule(DatabaseManager.UpcomingSignup signup) {
+        long startMs;
+        try {
+            startMs = LocalDate.parse(signup.eventDate).atTime(EVENT_START_TIME).atZone(zone).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return; // Free-text date; nothing sensible to schedule
+        }
+        List<HierarchicalTimingWheel.Timer<Reminder>> timers = timersByEvent.computeIfAbsent(signup.eventId, k -> new ArrayList<>());
+        for (int i = 0; i < REMINDER_OFFSETS_MS.length; i++) {
+            long fireAt = startMs - REMINDER_OFFSETS_MS[i];
+            if (fireAt <= watermarkMs || startMs <= watermarkMs) continue; // Already sent, or event has passed
+            if (isScheduled(timers, signup.volunteerId, REMINDER_KINDS[i])) continue; // Loaded by the horizon too
+            timers.add(wheel.schedule(fireAt, new Reminder(signup, REMINDER_KINDS[i])));
+        }
+        if (timers.isEmpty()) timersByEvent.remove(signup.eventId);
+    }
+
+    private static boolean isScheduled(List<HierarchicalTimingWheel.Timer<Reminder>> timers, String volunteerId, String kind) {
+        for (HierarchicalTimingWheel.Timer<Reminder> timer : timers) {
+            if (timer.item.signup.volunteerId.equals(volunteerId) && timer.item.kind.equals(kind)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Puts a due timer whose batch failed to write back in the wheel, unless
+     * a listener cancelled it meanwhile. Its deadline has passed, so it is
+     * due again on the next tick.
+     */
+    private void reschedule(HierarchicalTimingWheel.Timer<Reminder> timer) {
+        List<HierarchicalTimingWheel.Timer<Reminder>> timers = timersByEvent.get(timer.item.signup.eventId);
+        int index = (timers != null) ? timers.indexOf(timer) : -1;
+        if (index < 0 || timer.isCancelled()) return;
+        timers.set(index, wheel.schedule(timer.deadlineMs, timer.item));
+    }
+
+    private void cancelEvent(String eventId) {
+        changeCount++;
+        List<HierarchicalTimingWheel.Timer<Reminder>> timers = timersByEvent.remove(eventId);
+        if (timers != null) {
+            timers.forEach(HierarchicalTimingWheel.Timer::cancel);
+        }
+    }
+
+    private void cancelSignup(String volunteerId, String eventId) {
+        changeCount++;
+        List<HierarchicalTimingWheel.Timer<Reminder>> timers = timersByEvent.get(eventId);
+        if (timers == null) return;
+        timers.removeIf(timer -> {
+            if (timer.item.signup.volunteerId.equals(volunteerId)) {
+                timer.cancel();
+                return true;
+            }
+            return false;
+        });
+        if (timers.isEmpty()) timersByEvent.remove(eventId);
+    }
+
+    private void forget(HierarchicalTimingWheel.Timer<Reminder> timer) {
+        List<HierarchicalTimingWheel.Timer<Reminder>> timers = timersByEvent.get(timer.item.signup.eventId);
+        if (timers != null) {
+            timers.remove(timer);
+            if (timers.isEmpty()) timersByEvent.remove(timer.item.signup.eventId);
+        }
+    }
+
+    private void writeBatch(List<HierarchicalTimingWheel.Timer<Reminder>> due, long nowMs) throws IOException {
+        Files.createDirectories(outboxDir);
+        Path file = outboxDir.resolve("reminders-" + LocalDate.now(zone) + ".jsonl");
+        StringBuilder batch = new StringBuilder();
+        for (HierarchicalTimingWheel.Timer<Reminder> timer : due) {
+            DatabaseManager.UpcomingSignup s = timer.item.signup;
+            batch.append("{\"kind\":\"").append(timer.item.kind)
+                .append("\",\"dueAt\":\"").append(Instant.ofEpochMilli(timer.deadlineMs))
+                .append("\",\"writtenAt\":\"").append(Instant.ofEpochMilli(nowMs))
+                .append("\",\"to\":\"").append(jsonEscape(s.volunteerEmail))
+                .append("\",\"volunteerId\":\"").append(jsonEscape(s.volunteerId))
+                .append("\",\"eventId\":\"").append(jsonEscape(s.eventId))
+                .append("\",\"eventDate\":\"").append(jsonEscape(s.eventDate))
+                .append("\",\"eventTitle\":\"").append(jsonEscape(s.eventTitle))
+                .append("\"}\n");
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE, StandardOpenOption.DSYNC)) {
+            writer.write(batch.toString());
+        }
+    }
+
+    static String jsonEscape(String value) {
+        if (value == null) return "";
+        StringBuilder sb = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,419 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * StressHarness (Tool)
+ * Hammers one database file with a configurable mix of DatabaseManager calls
+ * from many threads (platform or virtual), then checks invariants and reports
+ * throughput, latency percentiles and failure counts per cause.
+ *
+ * Usage:
+ *   java StressHarness [--db stress_hub.db] [--threads 16] [--ops 2000] [--virtual]
+ *                      [--volunteers 200] [--events 100]
+ *                      [--mix register=10,update=15,signup=25,hours=15,delete=5,read=30]
+ *
+ * "hours" records hours for a few shared volunteers, mostly at a few shared
+ * events, so every worker updates the same rollup rows, and otherwise at events
+ * that "delete" may remove; the rollups must still add up to the signups
+ * afterwards. The database file is deleted and recreated on every
+ * run. Exits with status 1 if an invariant is broken, a worker died, or any
+ * call failed because the database was locked.
+ */
+public class StressHarness {
+
+    private static final String[] OPS = {"register", "update", "signup", "hours", "delete", "read"};
+    private static final String DEFAULT_MIX = "register=10,update=15,signup=25,hours=15,delete=5,read=30";
+    private static final int SHARED_VOLUNTEERS = 4;
+    private static final int SHARED_EVENTS = 8;
+
+    // Causes that mean the concurrency handling itself is broken
+    private static final Set<String> UNEXPECTED_CAUSES = Set.of("SQLITE_BUSY", "SQLITE_LOCKED", "SQLITE_BUSY_SNAPSHOT");
+
+    // --- Options ---
+    private String dbFile = "stress_hub.db";
+    private int threads = 16;
+    private int opsPerThread = 2000;
+    private boolean virtual = false;
+    private int seedVolunteers = 200;
+    private int seedEvents = 100;
+    private int[] mix = new int[OPS.length];
+
+    // --- Shared state ---
+    private DatabaseManager dbManager;
+    private AtomicReferenceArray<String> volunteerPool;
+    private final AtomicInteger volunteerCount = new AtomicInteger();
+    private List<String> eventPool;
+    private final Set<String> deletedEvents = ConcurrentHashMap.newKeySet();
+    private String[] ownVolunteer;   // one volunteer per worker, only updated by that worker
+    private String[] lastAcknowledged; // last value updateVolunteer() reported as saved
+    private final List<String> sharedVolunteers = new ArrayList<>(); // only used by "hours"
+    private final List<String> sharedEvents = new ArrayList<>();     // never deleted
+    private final AtomicInteger deadWorkers = new AtomicInteger();
+
+    /** Latencies and failures for one operation type on one worker. */
+    private static class OpStats {
+        long[] latenciesNs = new long[64];
+        int count;
+        int failed;
+        Map<String, Integer> failures = new TreeMap<>();
+
+        void record(long nanos, String failureCause) {
+            if (count == latenciesNs.length) latenciesNs = Arrays.copyOf(latenciesNs, count * 2);
+            latenciesNs[count++] = nanos;
+            if (failureCause != null) {
+                failed++;
+                failures.merge(failureCause, 1, Integer::sum);
+            }
+        }
+
+        void merge(OpStats other) {
+            for (int i = 0; i < other.count; i++) record(other.latenciesNs[i], null);
+            failed += other.failed;
+            other.failures.forEach((cause, n) -> failures.merge(cause, n, Integer::sum));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        StressHarness harness = new StressHarness();
+        harness.parseArgs(args);
+        System.exit(harness.run() ? 0 : 1);
+    }
+
+    private void parseArgs(String[] args) {
+        String mixSpec = DEFAULT_MIX;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--db" -> dbFile = args[++i];
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--ops" -> opsPerThread = Integer.parseInt(args[++i]);
+                case "--virtual" -> virtual = true;
+                case "--volunteers" -> seedVolunteers = Integer.parseInt(args[++i]);
+                case "--events" -> seedEvents = Integer.parseInt(args[++i]);
+                case "--mix" -> mixSpec = args[++i];
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        for (String part : mixSpec.split(",")) {
+            String[] kv = part.split("=");
+            int op = Arrays.asList(OPS).indexOf(kv[0].trim());
+            if (op < 0) throw new IllegalArgumentException("Unknown operation in --mix: " + kv[0]);
+            mix[op] = Integer.parseInt(kv[1].trim());
+        }
+        if (Path.of(dbFile).getFileName().toString().equals("volunteer_hub.db")) {
+            throw new IllegalArgumentException("Refusing to run against the application database");
+        }
+        seedVolunteers = Math.max(seedVolunteers, threads);
+    }
+
+    private boolean run() throws Exception {
+        for (String suffix : new String[]{"", "-wal", "-shm"}) {
+            Files.deleteIfExists(Path.of(dbFile + suffix));
+        }
+        dbManager = new DatabaseManager("jdbc:sqlite:" + dbFile);
+        dbManager.setLogErrors(false);
+        dbManager.createTables();
+        seed();
+
+        ExecutorService executor = virtual
+            ? Executors.newVirtualThreadPerTaskExecutor()
+            : Executors.newFixedThreadPool(threads);
+
+        OpStats[][] stats = new OpStats[threads][OPS.length];
+        CountDownLatch startGate = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            executor.submit(() -> {
+                try {
+                    startGate.await();
+                    stats[worker] = runWorker(worker);
+                } catch (Throwable e) {
+                    deadWorkers.incrementAndGet();
+                    System.err.println("Worker " + worker + " died: " + e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long started = System.nanoTime();
+        startGate.countDown();
+        done.await();
+        long elapsedNs = System.nanoTime() - started;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        boolean clean = report(stats, elapsedNs);
+        return checkInvariants() && clean;
+    }
+
+    private void seed() {
+        int capacity = seedVolunteers + threads * opsPerThread;
+        volunteerPool = new AtomicReferenceArray<>(capacity);
+        for (int i = 0; i < seedVolunteers; i++) {
+            String id = dbManager.registerVolunteer("Seed " + i, "seed-" + i + "@stress.local", "");
+            volunteerPool.set(volunteerCount.getAndIncrement(), id);
+        }
+        for (int i = 0; i < seedEvents; i++) {
+            dbManager.createEvent("Stress Event " + i, "", "2099-01-" + String.format("%02d", 1 + i % 28), "Stress Town");
+        }
+        eventPool = new ArrayList<>();
+        for (DatabaseManager.Event event : dbManager.getAllEvents()) {
+            eventPool.add(event.id);
+        }
+        for (int i = 0; i < SHARED_VOLUNTEERS; i++) {
+            sharedVolunteers.add(dbManager.registerVolunteer("Shared " + i, "shared-" + i + "@stress.local", ""));
+        }
+        for (int i = 0; i < SHARED_EVENTS; i++) {
+            dbManager.createEvent("Shared Shift " + i, "", "2099-02-" + String.format("%02d", 1 + i), "Shared Town");
+        }
+        for (DatabaseManager.Event event : dbManager.getAllEvents()) {
+            if (!eventPool.contains(event.id)) sharedEvents.add(event.id);
+        }
+        ownVolunteer = new String[threads];
+        lastAcknowledged = new String[threads];
+        for (int t = 0; t < threads; t++) {
+            ownVolunteer[t] = volunteerPool.get(t);
+        }
+    }
+
+    private OpStats[] runWorker(int worker) {
+        OpStats[] stats = new OpStats[OPS.length];
+        for (int i = 0; i < OPS.length; i++) stats[i] = new OpStats();
+        Random random = new Random(worker * 7919L + 17);
+        int totalWeight = Arrays.stream(mix).sum();
+
+        for (int i = 0; i < opsPerThread; i++) {
+            int pick = random.nextInt(totalWeight);
+            int op = 0;
+            while (pick >= mix[op]) pick -= mix[op++];
+
+            dbManager.clearLastError();
+            long start = System.nanoTime();
+            boolean ok = switch (op) {
+                case 0 -> doRegister(worker, i, random);
+                case 1 -> doUpdate(worker, i);
+                case 2 -> doSignup(random);
+                case 3 -> doHours(random);
+                case 4 -> doDelete(random);
+                default -> doRead(random);
+            };
+            long nanos = System.nanoTime() - start;
+            stats[op].record(nanos, ok ? null : classify(dbManager.getLastError()));
+        }
+        return stats;
+    }
+
+    // --- Operations ---
+
+    private boolean doRegister(int worker, int i, Random random) {
+        // Occasionally reuse a seed email: the UNIQUE constraint must reject it
+        String email = (random.nextInt(50) == 0)
+            ? "seed-" + random.nextInt(seedVolunteers) + "@stress.local"
+            : "w" + worker + "-" + i + "@stress.local";
+        String id = dbManager.registerVolunteer("Worker " + worker + " #" + i, email, "");
+        if (id != null) {
+            volunteerPool.set(volunteerCount.getAndIncrement(), id);
+        }
+        return id != null;
+    }
+
+    private boolean doUpdate(int worker, int i) {
+        String value = "w" + worker + "-rev" + i;
+        boolean ok = dbManager.updateVolunteer(ownVolunteer[worker], "Seed " + worker,
+            "seed-" + worker + "@stress.local", value);
+        if (ok) lastAcknowledged[worker] = value;
+        return ok;
+    }
+
+    private boolean doSignup(Random random) {
+        String volunteerId = randomVolunteer(random);
+        String eventId = eventPool.get(random.nextInt(eventPool.size()));
+        return volunteerId != null && dbManager.signUpForEvent(volunteerId, eventId);
+    }
+
+    private boolean doHours(Random random) {
+        String volunteerId = sharedVolunteers.get(random.nextInt(sharedVolunteers.size()));
+        // Some hours go to events that may be deleted, whose signups must leave the rollups
+        String eventId = (random.nextInt(4) == 0)
+            ? eventPool.get(random.nextInt(eventPool.size()))
+            : sharedEvents.get(random.nextInt(sharedEvents.size()));
+        if (dbManager.joinEvent(volunteerId, eventId) == DatabaseManager.SignupResult.FAILED) return false;
+        // Quarter hours add up exactly, so the rollups can be compared for equality
+        return dbManager.recordHours(volunteerId, eventId, 0.25 * (1 + random.nextInt(16)));
+    }
+
+    private boolean doDelete(Random random) {
+        String eventId = eventPool.get(random.nextInt(eventPool.size()));
+        boolean ok = dbManager.deleteEvent(eventId);
+        if (ok) deletedEvents.add(eventId);
+        return ok;
+    }
+
+    private boolean doRead(Random random) {
+        String eventId = eventPool.get(random.nextInt(eventPool.size()));
+        String volunteerId = randomVolunteer(random);
+        switch (random.nextInt(4)) {
+            case 0 -> dbManager.getEvent(eventId);
+            case 1 -> dbManager.getVolunteer(volunteerId);
+            case 2 -> dbManager.getEventsForVolunteer(volunteerId);
+            default -> dbManager.getRosterPage(eventId, null, 20);
+        }
+        // Reads report failure only through the recorded error
+        return dbManager.getLastError() == null;
+    }
+
+    private String randomVolunteer(Random random) {
+        String id = null;
+        while (id == null) {
+            id = volunteerPool.get(random.nextInt(volunteerCount.get()));
+        }
+        return id;
+    }
+
+    private static String classify(Exception e) {
+        if (e == null) return "REJECTED";
+        String message = String.valueOf(e.getMessage());
+        if (message.startsWith("[")) {
+            int end = message.indexOf(']');
+            if (end > 0) return message.substring(1, end);
+        }
+        return e.getClass().getSimpleName();
+    }
+
+    // --- Reporting ---
+
+    private boolean report(OpStats[][] stats, long elapsedNs) {
+        long totalOps = 0;
+        Map<String, OpStats> merged = new LinkedHashMap<>();
+        for (int op = 0; op < OPS.length; op++) {
+            OpStats all = new OpStats();
+            for (OpStats[] workerStats : stats) {
+                if (workerStats[op] != null) all.merge(workerStats[op]);
+            }
+            merged.put(OPS[op], all);
+            totalOps += all.count;
+        }
+
+        double seconds = elapsedNs / 1e9;
+        System.out.printf("%n%d %s threads x %d ops in %.2f s: %.0f ops/s%n",
+            threads, virtual ? "virtual" : "platform", opsPerThread, seconds, totalOps / seconds);
+        System.out.printf("%-9s %8s %8s %9s %9s %9s %9s%n", "op", "count", "failed", "p50 ms", "p95 ms", "p99 ms", "max ms");
+
+        boolean clean = true;
+        for (Map.Entry<String, OpStats> entry : merged.entrySet()) {
+            OpStats s = entry.getValue();
+            long[] sorted = Arrays.copyOf(s.latenciesNs, s.count);
+            Arrays.sort(sorted);
+            System.out.printf("%-9s %8d %8d %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(), s.count, s.failed,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100));
+            for (Map.Entry<String, Integer> failure : s.failures.entrySet()) {
+                boolean unexpected = UNEXPECTED_CAUSES.contains(failure.getKey());
+                clean &= !unexpected;
+                System.out.printf("          %s %s: %d%n", unexpected ? "!!" : "- ", failure.getKey(), failure.getValue());
+            }
+        }
+        return clean;
+    }
+
+    private static double percentile(long[] sorted, int p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    // --- Invariants ---
+
+    private boolean checkInvariants() throws SQLException {
+        boolean ok = true;
+        System.out.println("\nInvariants:");
+        ok &= printCheck("dead workers", deadWorkers.get());
+        try (Connection conn = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+             Statement stmt = conn.createStatement()) {
+            ok &= expectZero(stmt, "orphan signups",
+                "SELECT COUNT(*) FROM event_signups s LEFT JOIN events e ON e.id = s.event_id WHERE e.id IS NULL");
+            ok &= expectZero(stmt, "signups of unknown volunteers",
+                "SELECT COUNT(*) FROM event_signups s LEFT JOIN volunteers v ON v.id = s.volunteer_id WHERE v.id IS NULL");
+            ok &= expectZero(stmt, "duplicate emails",
+                "SELECT COUNT(*) - COUNT(DISTINCT email) FROM volunteers");
+            ok &= expectZero(stmt, "signup counters out of step",
+                "SELECT COUNT(*) FROM events e WHERE (SELECT COUNT(*) FROM event_signups s WHERE s.event_id = e.id) "
+                    + "<> IFNULL((SELECT signup_count FROM event_signup_counts c WHERE c.event_id = e.id), 0)");
+
+            int stillPresent = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM events WHERE id = ?")) {
+                for (String eventId : deletedEvents) {
+                    pstmt.setString(1, eventId);
+                    if (pstmt.executeQuery().next()) stillPresent++;
+                }
+            }
+            ok &= printCheck("deleted events still present", stillPresent);
+
+            int lostUpdates = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT skills FROM volunteers WHERE id = ?")) {
+                for (int t = 0; t < threads; t++) {
+                    if (lastAcknowledged[t] == null) continue;
+                    pstmt.setString(1, ownVolunteer[t]);
+                    ResultSet rs = pstmt.executeQuery();
+                    if (!rs.next() || !lastAcknowledged[t].equals(rs.getString(1))) lostUpdates++;
+                }
+            }
+            ok &= printCheck("lost updates", lostUpdates);
+
+            // Every worker adjusts the same few rollup rows; a lost update leaves them out of step
+            ok &= expectZero(stmt, "volunteer hours out of step", """
+                SELECT COUNT(*) FROM volunteers v
+                WHERE IFNULL((SELECT total_hours FROM volunteer_hours h WHERE h.volunteer_id = v.id), 0)
+                        <> IFNULL((SELECT SUM(hours) FROM event_signups s WHERE s.volunteer_id = v.id), 0)
+                   OR IFNULL((SELECT shifts FROM volunteer_hours h WHERE h.volunteer_id = v.id), 0)
+                        <> (SELECT COUNT(hours) FROM event_signups s WHERE s.volunteer_id = v.id)
+                """);
+            ok &= expectZero(stmt, "monthly hours out of step", """
+                SELECT COUNT(*) FROM volunteer_hours_monthly m
+                WHERE m.hours <> IFNULL((SELECT SUM(s.hours) FROM event_signups s
+                                         WHERE s.volunteer_id = m.volunteer_id AND s.hours_month = m.month), 0)
+                """);
+            ok &= expectZero(stmt, "location hours out of step", """
+                SELECT COUNT(*) FROM location_hours l
+                WHERE l.total_hours <> IFNULL((SELECT SUM(s.hours) FROM event_signups s
+                                               WHERE s.hours_location = l.location), 0)
+                   OR l.shifts <> (SELECT COUNT(s.hours) FROM event_signups s WHERE s.hours_location = l.location)
+                """);
+        }
+        System.out.println(ok ? "All invariants hold." : "INVARIANT VIOLATION");
+        return ok;
+    }
+
+    private static boolean expectZero(Statement stmt, String name, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return printCheck(name, rs.getLong(1));
+        }
+    }
+
+    private static boolean printCheck(String name, long violations) {
+        System.out.printf("  %-30s %s%n", name, violations == 0 ? "ok" : "FAILED (" + violations + ")");
+        return violations == 0;
+    }
+}
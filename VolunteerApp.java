@@ -1,41 +1,50 @@
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Vector;
 
 /**
  * VolunteerApp (Frontend)
  * This class builds the main Java Swing GUI. It manages the CardLayout
- * to switch between different panels (Events, Profile, Manage).
+ * to switch between different panels (Events, Profile, Manage, Reports).
  * It communicates with the DatabaseManager (backend) for all data operations.
  */
 public class VolunteerApp extends JFrame {
 
     // --- Modern White Theme Colors ---
-    private static final Color COLOR_BACKGROUND = new Color(245, 245, 250);
-    private static final Color COLOR_NAV_BAR = new Color(255, 255, 255);
-    private static final Color COLOR_PANEL = new Color(255, 255, 255);
-    private static final Color COLOR_TEXT = new Color(30, 30, 40);
-    private static final Color COLOR_TEXT_LIGHT = new Color(100, 100, 110);
-    private static final Color COLOR_PRIMARY = new Color(0, 123, 255);
-    private static final Color COLOR_SUCCESS = new Color(40, 167, 69);
-    private static final Color COLOR_BORDER = new Color(220, 220, 225);
+    static final Color COLOR_BACKGROUND = new Color(245, 245, 250);
+    static final Color COLOR_NAV_BAR = new Color(255, 255, 255);
+    static final Color COLOR_PANEL = new Color(255, 255, 255);
+    static final Color COLOR_TEXT = new Color(30, 30, 40);
+    static final Color COLOR_TEXT_LIGHT = new Color(100, 100, 110);
+    static final Color COLOR_PRIMARY = new Color(0, 123, 255);
+    static final Color COLOR_SUCCESS = new Color(40, 167, 69);
+    static final Color COLOR_BORDER = new Color(220, 220, 225);
 
     // --- Fonts ---
-    private static final Font FONT_HEADER = new Font("Segoe UI", Font.BOLD, 24);
-    private static final Font FONT_NAV = new Font("Segoe UI", Font.BOLD, 16);
-    private static final Font FONT_BODY = new Font("Segoe UI", Font.PLAIN, 14);
-    private static final Font FONT_BODY_BOLD = new Font("Segoe UI", Font.BOLD, 14);
+    static final Font FONT_HEADER = new Font("Segoe UI", Font.BOLD, 24);
+    static final Font FONT_NAV = new Font("Segoe UI", Font.BOLD, 16);
+    static final Font FONT_BODY = new Font("Segoe UI", Font.PLAIN, 14);
+    static final Font FONT_BODY_BOLD = new Font("Segoe UI", Font.BOLD, 14);
 
     // --- GUI Components ---
     private CardLayout cardLayout;
     private JPanel mainContentPanel;
     private DatabaseManager dbManager; // The backend connection
+    private ArchiveJob archiveJob; // Moves past events out of the live tables
+    private ReminderScheduler reminderScheduler; // Writes event reminders to the outbox
+    private MaintenanceService maintenanceService; // Daily online backup and compaction
+    private VolunteerNameIndex volunteerNameIndex; // Type-ahead search over volunteer names
 
     // --- "State" ---
     // This stores the ID of the currently "logged in" volunteer.
@@ -44,14 +53,24 @@ public class VolunteerApp extends JFrame {
     private JLabel statusLabel;
 
     // --- Panels (Screens) ---
-    private EventsPanel eventsPanel;
+    EventsPanel eventsPanel;
     private ProfilePanel profilePanel;
     private ManageEventsPanel manageEventsPanel;
+    private ReportsPanel reportsPanel;
 
     public VolunteerApp() {
         // --- 1. Connect to Backend ---
         dbManager = new DatabaseManager();
         dbManager.createTables();
+        archiveJob = new ArchiveJob(dbManager);
+        archiveJob.start();
+        reminderScheduler = new ReminderScheduler(dbManager);
+        reminderScheduler.start();
+        maintenanceService = new MaintenanceService(dbManager);
+        maintenanceService.start();
+        volunteerNameIndex = new VolunteerNameIndex();
+        dbManager.addChangeListener(volunteerNameIndex);
+        volunteerNameIndex.buildInBackground(dbManager);
 
         // --- 2. Set up Main Window ---
         setTitle("Community Volunteer Hub");
@@ -75,10 +94,12 @@ public class VolunteerApp extends JFrame {
         eventsPanel = new EventsPanel(this);
         profilePanel = new ProfilePanel(this);
         manageEventsPanel = new ManageEventsPanel(this);
+        reportsPanel = new ReportsPanel(this);
 
         mainContentPanel.add(eventsPanel, "EVENTS");
         mainContentPanel.add(profilePanel, "PROFILE");
         mainContentPanel.add(manageEventsPanel, "MANAGE");
+        mainContentPanel.add(reportsPanel, "REPORTS");
 
         add(mainContentPanel, BorderLayout.CENTER);
 
@@ -115,6 +136,7 @@ public class VolunteerApp extends JFrame {
         navPanel.add(createNavButton("Browse Events", "EVENTS"));
         navPanel.add(createNavButton("My Profile", "PROFILE"));
         navPanel.add(createNavButton("Manage Events", "MANAGE"));
+        navPanel.add(createNavButton("Reports", "REPORTS"));
 
         navPanel.add(Box.createVerticalGlue()); // Pushes buttons to the top
         return navPanel;
@@ -140,6 +162,10 @@ public class VolunteerApp extends JFrame {
         return dbManager;
     }
 
+    public VolunteerNameIndex getVolunteerNameIndex() {
+        return volunteerNameIndex;
+    }
+
     public String getCurrentVolunteerId() {
         return currentVolunteerId;
     }
@@ -191,6 +217,25 @@ public class VolunteerApp extends JFrame {
      * Main method to run the application.
      */
     public static void main(String[] args) {
+        // "--server [port]" runs the JSON API headless instead of the GUI
+        if (args.length > 0 && args[0].equals("--server")) {
+            runServer(args.length > 1 ? Integer.parseInt(args[1]) : ApiServer.DEFAULT_PORT);
+            return;
+        }
+        // "--enable-incremental-vacuum" converts an existing database once; it blocks
+        // writers until it finishes, so run it off-hours with the app stopped
+        if (args.length > 0 && args[0].equals("--enable-incremental-vacuum")) {
+            DatabaseManager dbManager = new DatabaseManager();
+            if (dbManager.isIncrementalVacuumEnabled()) {
+                System.out.println("Incremental vacuum is already enabled.");
+            } else if (dbManager.enableIncrementalVacuum()) {
+                System.out.println("Incremental vacuum enabled.");
+            } else {
+                System.exit(1);
+            }
+            return;
+        }
+
         // Set global UI defaults for the white theme
         try {
             for (UIManager.LookAndFeelInfo info : UIManager.getInstalledLookAndFeels()) {
@@ -211,6 +256,35 @@ public class VolunteerApp extends JFrame {
         // Run the GUI creation on the Event Dispatch Thread (EDT)
         SwingUtilities.invokeLater(VolunteerApp::new);
     }
+
+    /**
+     * Starts the same background jobs as the GUI plus the API server, and
+     * keeps running until the process is stopped.
+     */
+    private static void runServer(int port) {
+        DatabaseManager dbManager = new DatabaseManager();
+        dbManager.createTables();
+        ArchiveJob archiveJob = new ArchiveJob(dbManager);
+        archiveJob.start();
+        ReminderScheduler reminderScheduler = new ReminderScheduler(dbManager);
+        reminderScheduler.start();
+        MaintenanceService maintenanceService = new MaintenanceService(dbManager);
+        maintenanceService.start();
+
+        ApiServer apiServer = new ApiServer(dbManager, port);
+        try {
+            apiServer.start();
+        } catch (java.io.IOException e) {
+            System.err.println("Could not start API server on port " + port + ": " + e.getMessage());
+            System.exit(1);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            apiServer.stop();
+            reminderScheduler.stop();
+            archiveJob.stop();
+            maintenanceService.stop();
+        }));
+    }
 }
 
 // =========================================================================
@@ -221,6 +295,18 @@ class EventsPanel extends JPanel {
     private DatabaseManager dbManager;
     private JTable eventsTable;
     private DefaultTableModel tableModel;
+    private JCheckBox includeArchivedBox;
+
+    // Distance filter ("events near me"); nearCoords is null when not filtering
+    private JTextField nearField = new JTextField(15);
+    private JSpinner radiusSpinner = new JSpinner(new SpinnerNumberModel(10, 1, 500, 5));
+    private double[] nearCoords = null;
+    private static final int NEAR_RESULT_LIMIT = 500;
+
+    // Date window being browsed; recurring series are only expanded for this window
+    private static final int WINDOW_DAYS = 28;
+    private LocalDate windowStart = LocalDate.now();
+    private JLabel windowLabel = new JLabel();
 
     public EventsPanel(VolunteerApp app) {
         this.app = app;
@@ -229,12 +315,54 @@ class EventsPanel extends JPanel {
         setLayout(new BorderLayout(10, 10));
         setBorder(new EmptyBorder(10, 10, 10, 10));
 
+        JPanel headerPanel = new JPanel(new BorderLayout(5, 5));
+        headerPanel.setBackground(Color.WHITE);
         JLabel title = new JLabel("Upcoming Community Events");
         title.setFont(VolunteerApp.FONT_HEADER);
-        add(title, BorderLayout.NORTH);
+        headerPanel.add(title, BorderLayout.NORTH);
+
+        // Date Window + Distance Filter Panel
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.setBackground(Color.WHITE);
+        JButton prevButton = new JButton("< Prev");
+        VolunteerApp.styleButton(prevButton, VolunteerApp.COLOR_TEXT_LIGHT);
+        prevButton.addActionListener(e -> {
+            windowStart = windowStart.minusDays(WINDOW_DAYS);
+            loadEvents();
+        });
+        JButton nextButton = new JButton("Next >");
+        VolunteerApp.styleButton(nextButton, VolunteerApp.COLOR_TEXT_LIGHT);
+        nextButton.addActionListener(e -> {
+            windowStart = windowStart.plusDays(WINDOW_DAYS);
+            loadEvents();
+        });
+        windowLabel.setFont(VolunteerApp.FONT_BODY_BOLD);
+        filterPanel.add(prevButton);
+        filterPanel.add(windowLabel);
+        filterPanel.add(nextButton);
+        filterPanel.add(Box.createHorizontalStrut(20));
+        filterPanel.add(new JLabel("Near:"));
+        nearField.setToolTipText("A town or place listed in gazetteer.csv");
+        filterPanel.add(nearField);
+        filterPanel.add(new JLabel("within"));
+        filterPanel.add(radiusSpinner);
+        filterPanel.add(new JLabel("km"));
+        JButton nearButton = new JButton("Find Nearby");
+        VolunteerApp.styleButton(nearButton, VolunteerApp.COLOR_PRIMARY);
+        nearButton.addActionListener(e -> onFindNearby());
+        JButton clearNearButton = new JButton("Show All");
+        VolunteerApp.styleButton(clearNearButton, VolunteerApp.COLOR_TEXT_LIGHT);
+        clearNearButton.addActionListener(e -> {
+            nearCoords = null;
+            loadEvents();
+        });
+        filterPanel.add(nearButton);
+        filterPanel.add(clearNearButton);
+        headerPanel.add(filterPanel, BorderLayout.SOUTH);
+        add(headerPanel, BorderLayout.NORTH);
 
         // Table
-        tableModel = new DefaultTableModel(new String[]{"ID", "Title", "Date", "Location", "Signed Up?"}, 0) {
+        tableModel = new DefaultTableModel(new String[]{"ID", "Title", "Date", "Location", "Signed Up?", "Distance"}, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
                 return false;
@@ -251,12 +379,23 @@ class EventsPanel extends JPanel {
         JButton signUpButton = new JButton("Sign Up for Selected Event");
         VolunteerApp.styleButton(signUpButton, VolunteerApp.COLOR_SUCCESS);
         signUpButton.addActionListener(e -> onSignUp());
+
+        JButton cancelButton = new JButton("Cancel Signup");
+        VolunteerApp.styleButton(cancelButton, VolunteerApp.COLOR_TEXT_LIGHT);
+        cancelButton.addActionListener(e -> onCancelSignup());
         
         JButton refreshButton = new JButton("Refresh");
         VolunteerApp.styleButton(refreshButton, VolunteerApp.COLOR_PRIMARY);
         refreshButton.addActionListener(e -> loadEvents());
 
+        includeArchivedBox = new JCheckBox("Include archived");
+        includeArchivedBox.setFont(VolunteerApp.FONT_BODY);
+        includeArchivedBox.setBackground(Color.WHITE);
+        includeArchivedBox.addActionListener(e -> loadEvents());
+
+        buttonPanel.add(includeArchivedBox);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(cancelButton);
         buttonPanel.add(signUpButton);
         add(buttonPanel, BorderLayout.SOUTH);
 
@@ -265,12 +404,21 @@ class EventsPanel extends JPanel {
 
     public void loadEvents() {
         tableModel.setRowCount(0);
-        List<DatabaseManager.Event> events = dbManager.getAllEvents();
+        boolean includeArchived = includeArchivedBox.isSelected();
+        LocalDate windowEnd = windowStart.plusDays(WINDOW_DAYS - 1);
+        windowLabel.setText(windowStart + " to " + windowEnd);
+        List<DatabaseManager.Event> events = (nearCoords != null)
+            ? dbManager.findEventsNear(nearCoords[0], nearCoords[1], (Integer) radiusSpinner.getValue(),
+                windowStart.toString(), windowEnd.toString(), includeArchived, NEAR_RESULT_LIMIT)
+            : dbManager.getEventsInWindow(windowStart.toString(), windowEnd.toString(), includeArchived);
         String currentVolId = app.getCurrentVolunteerId();
         
         List<String> signedUpEventIds = (currentVolId != null) 
-            ? dbManager.getEventsForVolunteer(currentVolId) 
+            ? dbManager.getEventsForVolunteer(currentVolId, includeArchived) 
             : List.of();
+        Map<String, Integer> waitlistPositions = (currentVolId != null)
+            ? dbManager.getWaitlistPositions(currentVolId)
+            : Map.of();
 
         for (DatabaseManager.Event event : events) {
             Vector<Object> row = new Vector<>();
@@ -278,11 +426,28 @@ class EventsPanel extends JPanel {
             row.add(event.title);
             row.add(event.date);
             row.add(event.location);
-            row.add(signedUpEventIds.contains(event.id) ? "Yes" : "No");
+            Integer position = waitlistPositions.get(event.id);
+            row.add(signedUpEventIds.contains(event.id) ? "Yes" : position != null ? "Waitlist #" + position : "No");
+            row.add(event.distanceKm != null ? String.format("%.1f km", event.distanceKm) : "");
             tableModel.addRow(row);
         }
     }
 
+    private void onFindNearby() {
+        String place = nearField.getText().trim();
+        if (place.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please enter a place to search near.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        double[] coords = dbManager.resolveLocation(place);
+        if (coords == null) {
+            JOptionPane.showMessageDialog(this, "Unknown place: " + place + ". Add it to gazetteer.csv.", "Not Found", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        nearCoords = coords;
+        loadEvents();
+    }
+
     private void onSignUp() {
         int selectedRow = eventsTable.getSelectedRow();
         if (app.getCurrentVolunteerId() == null) {
@@ -302,20 +467,58 @@ class EventsPanel extends JPanel {
             JOptionPane.showMessageDialog(this, "You are already signed up for this event.", "Already Registered", JOptionPane.INFORMATION_MESSAGE);
             return;
         }
+        if (isSignedUp.startsWith("Waitlist")) {
+            JOptionPane.showMessageDialog(this, "You are already on the waitlist for this event.", "Already Waiting", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
 
         int confirm = JOptionPane.showConfirmDialog(this, 
             "Sign up for '" + eventTitle + "'?", "Confirm Signup", JOptionPane.YES_NO_OPTION);
         
         if (confirm == JOptionPane.YES_OPTION) {
-            boolean success = dbManager.signUpForEvent(app.getCurrentVolunteerId(), eventId);
-            if (success) {
+            DatabaseManager.SignupResult result = dbManager.joinEvent(app.getCurrentVolunteerId(), eventId);
+            if (result == DatabaseManager.SignupResult.SIGNED_UP) {
                 JOptionPane.showMessageDialog(this, "Successfully signed up!", "Success", JOptionPane.INFORMATION_MESSAGE);
                 loadEvents();
+            } else if (result == DatabaseManager.SignupResult.WAITLISTED) {
+                int position = dbManager.getWaitlistPosition(app.getCurrentVolunteerId(), eventId);
+                JOptionPane.showMessageDialog(this, "This event is full. You are #" + position + " on the waitlist and will be signed up automatically if a place opens.", "Waitlisted", JOptionPane.INFORMATION_MESSAGE);
+                loadEvents();
             } else {
                 JOptionPane.showMessageDialog(this, "Failed to sign up. You may already be registered.", "Error", JOptionPane.ERROR_MESSAGE);
             }
         }
     }
+
+    private void onCancelSignup() {
+        int selectedRow = eventsTable.getSelectedRow();
+        if (app.getCurrentVolunteerId() == null) {
+            JOptionPane.showMessageDialog(this, "Please log in from the 'My Profile' tab first.", "Not Logged In", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Please select an event to cancel.", "No Event Selected", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        String eventId = (String) tableModel.getValueAt(selectedRow, 0);
+        String eventTitle = (String) tableModel.getValueAt(selectedRow, 1);
+        String isSignedUp = (String) tableModel.getValueAt(selectedRow, 4);
+        if ("No".equals(isSignedUp)) {
+            JOptionPane.showMessageDialog(this, "You are not signed up for this event.", "Not Registered", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
+        int confirm = JOptionPane.showConfirmDialog(this,
+            "Cancel your place for '" + eventTitle + "'?", "Confirm Cancellation", JOptionPane.YES_NO_OPTION);
+        if (confirm == JOptionPane.YES_OPTION) {
+            if (dbManager.cancelSignup(app.getCurrentVolunteerId(), eventId)) {
+                loadEvents();
+            } else {
+                JOptionPane.showMessageDialog(this, "Failed to cancel.", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
 }
 
 // =========================================================================
@@ -324,7 +527,13 @@ class EventsPanel extends JPanel {
 class ProfilePanel extends JPanel {
     private VolunteerApp app;
     private DatabaseManager dbManager;
-    private JTextField idField = new JTextField(10);
+    private static final int MAX_SUGGESTIONS = 10;
+
+    private VolunteerNameIndex nameIndex;
+    private JTextField idField = new JTextField(14);
+    private JTextField findField = new JTextField(14);
+    private JPopupMenu suggestionsPopup = new JPopupMenu();
+    private List<VolunteerNameIndex.Match> suggestions = new ArrayList<>();
     private JTextField nameField = new JTextField(20);
     private JTextField emailField = new JTextField(20);
     private JTextArea skillsArea = new JTextArea(5, 20);
@@ -332,6 +541,7 @@ class ProfilePanel extends JPanel {
     public ProfilePanel(VolunteerApp app) {
         this.app = app;
         this.dbManager = app.getDbManager();
+        this.nameIndex = app.getVolunteerNameIndex();
         setBackground(Color.WHITE);
         setLayout(new BorderLayout(10, 10));
         setBorder(BorderFactory.createCompoundBorder(
@@ -342,14 +552,29 @@ class ProfilePanel extends JPanel {
         // --- Login/Load Panel ---
         JPanel loadPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
         loadPanel.setBackground(Color.WHITE);
-        loadPanel.add(new JLabel("Your Volunteer ID:"));
+        loadPanel.add(new JLabel("Your Volunteer ID or Email:"));
         loadPanel.add(idField);
+        idField.addActionListener(e -> loadProfile());
         JButton loadButton = new JButton("Load Profile");
         VolunteerApp.styleButton(loadButton, VolunteerApp.COLOR_PRIMARY);
         loadButton.addActionListener(e -> loadProfile());
         loadPanel.add(loadButton);
+        loadPanel.add(Box.createHorizontalStrut(20));
+        loadPanel.add(new JLabel("Find by Name:"));
+        loadPanel.add(findField);
         add(loadPanel, BorderLayout.NORTH);
 
+        // Suggestions come from the in-memory index, so they are computed on the EDT
+        suggestionsPopup.setFocusable(false);
+        findField.getDocument().addDocumentListener(new DocumentListener() {
+            public void insertUpdate(DocumentEvent e) { SwingUtilities.invokeLater(ProfilePanel.this::updateSuggestions); }
+            public void removeUpdate(DocumentEvent e) { SwingUtilities.invokeLater(ProfilePanel.this::updateSuggestions); }
+            public void changedUpdate(DocumentEvent e) {}
+        });
+        findField.addActionListener(e -> {
+            if (!suggestions.isEmpty()) selectSuggestion(suggestions.get(0));
+        });
+
         // --- Profile Form Panel ---
         JPanel formPanel = new JPanel(new GridBagLayout());
         formPanel.setBackground(Color.WHITE);
@@ -396,22 +621,51 @@ class ProfilePanel extends JPanel {
         add(buttonPanel, BorderLayout.SOUTH);
     }
 
+    private void updateSuggestions() {
+        suggestionsPopup.setVisible(false);
+        suggestionsPopup.removeAll();
+        String prefix = findField.getText();
+        suggestions = nameIndex.search(prefix, MAX_SUGGESTIONS);
+        if (suggestions.isEmpty()) {
+            return;
+        }
+        for (VolunteerNameIndex.Match match : suggestions) {
+            JMenuItem item = new JMenuItem(match.toString());
+            item.setFont(VolunteerApp.FONT_BODY);
+            item.addActionListener(e -> selectSuggestion(match));
+            suggestionsPopup.add(item);
+        }
+        if (!nameIndex.isReady()) {
+            JMenuItem loading = new JMenuItem("(still loading volunteers...)");
+            loading.setEnabled(false);
+            suggestionsPopup.add(loading);
+        }
+        suggestionsPopup.show(findField, 0, findField.getHeight());
+    }
+
+    private void selectSuggestion(VolunteerNameIndex.Match match) {
+        suggestionsPopup.setVisible(false);
+        idField.setText(match.id);
+        loadProfile();
+    }
+
     private void loadProfile() {
-        String id = idField.getText().trim();
-        if (id.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter a Volunteer ID to load.", "Error", JOptionPane.ERROR_MESSAGE);
+        String key = idField.getText().trim();
+        if (key.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please enter a Volunteer ID or email to load.", "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
         
-        DatabaseManager.Volunteer vol = dbManager.getVolunteer(id);
+        DatabaseManager.Volunteer vol = key.contains("@") ? dbManager.getVolunteerByEmail(key) : dbManager.getVolunteer(key);
         if (vol != null) {
+            idField.setText(vol.id);
             nameField.setText(vol.name);
             emailField.setText(vol.email);
             skillsArea.setText(vol.skills);
             app.setCurrentVolunteer(vol.id, vol.name);
             JOptionPane.showMessageDialog(this, "Profile loaded successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
         } else {
-            JOptionPane.showMessageDialog(this, "No volunteer found with ID: " + id, "Not Found", JOptionPane.ERROR_MESSAGE);
+            JOptionPane.showMessageDialog(this, "No volunteer found for: " + key, "Not Found", JOptionPane.ERROR_MESSAGE);
             clearForm();
             app.setCurrentVolunteer(null, null);
         }
@@ -480,9 +734,19 @@ class ManageEventsPanel extends JPanel {
     private JTextField dateField = new JTextField(10);
     private JTextField locationField = new JTextField(20);
     private JTextArea descriptionArea = new JTextArea(5, 20);
+    private JComboBox<String> repeatsBox = new JComboBox<>(REPEAT_OPTIONS);
+    private JTextField untilField = new JTextField(10);
+    private JTextField capacityField = new JTextField(10);
     private JButton saveButton;
     private JButton clearButton;
     private JButton deleteButton;
+    private EventRosterPanel rosterPanel;
+
+    // Repeat options and the (frequency, interval) rule each one maps to
+    private static final String[] REPEAT_OPTIONS = {"Does not repeat", "Daily", "Weekly", "Every 2 weeks", "Monthly"};
+    private static final String[] REPEAT_FREQUENCIES = {null, DatabaseManager.EventSeries.DAILY,
+        DatabaseManager.EventSeries.WEEKLY, DatabaseManager.EventSeries.WEEKLY, DatabaseManager.EventSeries.MONTHLY};
+    private static final int[] REPEAT_INTERVALS = {0, 1, 1, 2, 1};
 
     public ManageEventsPanel(VolunteerApp app) {
         this.app = app;
@@ -498,7 +762,7 @@ class ManageEventsPanel extends JPanel {
         title.setFont(VolunteerApp.FONT_HEADER);
         tablePanel.add(title, BorderLayout.NORTH);
 
-        tableModel = new DefaultTableModel(new String[]{"ID", "Title", "Date", "Location"}, 0) {
+        tableModel = new DefaultTableModel(new String[]{"ID", "Title", "Date", "Location", "Repeats"}, 0) {
             @Override
             public boolean isCellEditable(int row, int column) { return false; }
         };
@@ -506,14 +770,18 @@ class ManageEventsPanel extends JPanel {
         JScrollPane scrollPane = new JScrollPane(eventsTable);
         VolunteerApp.styleTable(eventsTable, scrollPane);
         
-        // Add mouse listener to load form on row click
-        eventsTable.addMouseListener(new java.awt.event.MouseAdapter() {
-            public void mouseClicked(java.awt.event.MouseEvent evt) {
+        // Load the form (and roster) whenever the selected row changes
+        eventsTable.getSelectionModel().addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
                 loadSelectedEventToForm();
             }
         });
         
         tablePanel.add(scrollPane, BorderLayout.CENTER);
+
+        // --- Roster Panel (who signed up for the selected event) ---
+        rosterPanel = new EventRosterPanel(dbManager);
+        tablePanel.add(rosterPanel, BorderLayout.SOUTH);
         add(tablePanel, BorderLayout.CENTER);
 
         // --- Form Panel ---
@@ -525,7 +793,9 @@ class ManageEventsPanel extends JPanel {
         gbc.anchor = GridBagConstraints.WEST;
         
         idField.setEditable(false);
-        dateField.setToolTipText("YYYY-MM-DD");
+        dateField.setToolTipText("YYYY-MM-DD (first date for a repeating event)");
+        untilField.setToolTipText("YYYY-MM-DD, or leave empty to repeat indefinitely");
+        capacityField.setToolTipText("Maximum signups for a single event; leave empty for no limit. Extra volunteers join a waitlist.");
 
         gbc.gridx = 0; gbc.gridy = 0; formPanel.add(new JLabel("ID:"), gbc);
         gbc.gridx = 1; gbc.gridy = 0; gbc.fill = GridBagConstraints.HORIZONTAL; formPanel.add(idField, gbc);
@@ -547,6 +817,16 @@ class ManageEventsPanel extends JPanel {
         descriptionArea.setBorder(new LineBorder(VolunteerApp.COLOR_BORDER));
         formPanel.add(new JScrollPane(descriptionArea), gbc);
 
+        gbc.weightx = 0; gbc.weighty = 0; gbc.anchor = GridBagConstraints.WEST;
+        gbc.gridx = 0; gbc.gridy = 5; formPanel.add(new JLabel("Repeats:"), gbc);
+        gbc.gridx = 1; gbc.gridy = 5; gbc.fill = GridBagConstraints.HORIZONTAL; formPanel.add(repeatsBox, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 6; formPanel.add(new JLabel("Until:"), gbc);
+        gbc.gridx = 1; gbc.gridy = 6; gbc.fill = GridBagConstraints.HORIZONTAL; formPanel.add(untilField, gbc);
+
+        gbc.gridx = 0; gbc.gridy = 7; formPanel.add(new JLabel("Capacity:"), gbc);
+        gbc.gridx = 1; gbc.gridy = 7; gbc.fill = GridBagConstraints.HORIZONTAL; formPanel.add(capacityField, gbc);
+
         // --- Form Button Panel ---
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         buttonPanel.setBackground(Color.WHITE);
@@ -567,7 +847,7 @@ class ManageEventsPanel extends JPanel {
         buttonPanel.add(deleteButton);
         buttonPanel.add(saveButton);
         
-        gbc.gridx = 0; gbc.gridy = 5; gbc.gridwidth = 2; gbc.fill = GridBagConstraints.HORIZONTAL;
+        gbc.gridx = 0; gbc.gridy = 8; gbc.gridwidth = 2; gbc.fill = GridBagConstraints.HORIZONTAL;
         formPanel.add(buttonPanel, gbc);
         
         add(formPanel, BorderLayout.EAST);
@@ -584,6 +864,17 @@ class ManageEventsPanel extends JPanel {
             row.add(event.title);
             row.add(event.date);
             row.add(event.location);
+            row.add("");
+            tableModel.addRow(row);
+        }
+        // Recurring series are listed once, by their rule
+        for (DatabaseManager.EventSeries series : dbManager.getAllEventSeries()) {
+            Vector<Object> row = new Vector<>();
+            row.add(series.id);
+            row.add(series.title);
+            row.add(series.startDate);
+            row.add(series.location);
+            row.add(describeRepeat(series));
             tableModel.addRow(row);
         }
         // Refresh the other panel too
@@ -595,15 +886,57 @@ class ManageEventsPanel extends JPanel {
         if (selectedRow == -1) return;
         
         String eventId = (String) tableModel.getValueAt(selectedRow, 0);
+        if (isSeriesId(eventId)) {
+            loadSelectedSeriesToForm(eventId);
+            return;
+        }
         DatabaseManager.Event event = dbManager.getEvent(eventId);
+        repeatsBox.setSelectedIndex(0);
+        untilField.setText("");
+        capacityField.setText("");
         
         if (event != null) {
             idField.setText(event.id);
             titleField.setText(event.title);
-            descriptionArea.setText(event.description);
+            descriptionArea.setText(dbManager.getEventDescription(event.id)); // Only loaded when shown
             dateField.setText(event.date);
             locationField.setText(event.location);
+            capacityField.setText(event.capacity != null ? event.capacity.toString() : "");
         }
+        rosterPanel.showEvent(eventId);
+    }
+
+    private void loadSelectedSeriesToForm(String seriesId) {
+        DatabaseManager.EventSeries series = dbManager.getEventSeries(seriesId);
+        if (series != null) {
+            idField.setText(series.id);
+            titleField.setText(series.title);
+            descriptionArea.setText(series.description);
+            dateField.setText(series.startDate);
+            locationField.setText(series.location);
+            untilField.setText(series.untilDate != null ? series.untilDate : "");
+            capacityField.setText("");
+            for (int i = 1; i < REPEAT_OPTIONS.length; i++) {
+                if (REPEAT_FREQUENCIES[i].equals(series.frequency) && REPEAT_INTERVALS[i] == series.interval) {
+                    repeatsBox.setSelectedIndex(i);
+                }
+            }
+        }
+        // A series has no roster of its own; signups belong to its occurrences
+        rosterPanel.showEvent(null);
+    }
+
+    private static boolean isSeriesId(String id) {
+        return id.startsWith("s-") && !id.contains("@");
+    }
+
+    private static String describeRepeat(DatabaseManager.EventSeries series) {
+        String every = switch (series.frequency) {
+            case DatabaseManager.EventSeries.DAILY -> series.interval == 1 ? "Daily" : "Every " + series.interval + " days";
+            case DatabaseManager.EventSeries.MONTHLY -> series.interval == 1 ? "Monthly" : "Every " + series.interval + " months";
+            default -> series.interval == 1 ? "Weekly" : "Every " + series.interval + " weeks";
+        };
+        return (series.untilDate != null) ? every + " until " + series.untilDate : every;
     }
     
     private void clearForm() {
@@ -612,7 +945,11 @@ class ManageEventsPanel extends JPanel {
         descriptionArea.setText("");
         dateField.setText("");
         locationField.setText("");
+        repeatsBox.setSelectedIndex(0);
+        untilField.setText("");
+        capacityField.setText("");
         eventsTable.clearSelection();
+        rosterPanel.showEvent(null);
     }
     
     private void onSave() {
@@ -627,13 +964,45 @@ class ManageEventsPanel extends JPanel {
             return;
         }
         
+        Integer capacity = null;
+        if (!capacityField.getText().trim().isEmpty()) {
+            try {
+                capacity = Integer.parseInt(capacityField.getText().trim());
+            } catch (NumberFormatException e) {
+                capacity = 0;
+            }
+            if (capacity < 1) {
+                JOptionPane.showMessageDialog(this, "Capacity must be a whole number of at least 1, or empty for no limit.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+        }
+        
+        int repeat = repeatsBox.getSelectedIndex();
+        String until = untilField.getText().trim().isEmpty() ? null : untilField.getText().trim();
+        if (repeat > 0 && !id.isEmpty() && !isSeriesId(id)) {
+            JOptionPane.showMessageDialog(this, "A single event can't be turned into a repeating one. Clear the form and add it as new.", "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        
         boolean success;
-        if (id.isEmpty()) {
+        if (repeat > 0 && id.isEmpty()) {
+            // Add new repeating event
+            success = dbManager.createEventSeries(title, description, location, date, until,
+                REPEAT_FREQUENCIES[repeat], REPEAT_INTERVALS[repeat]) != null;
+        } else if (!id.isEmpty() && isSeriesId(id)) {
+            // Update repeating event
+            if (repeat == 0) {
+                JOptionPane.showMessageDialog(this, "Please choose how this event repeats.", "Error", JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            success = dbManager.updateEventSeries(id, title, description, location, date, until,
+                REPEAT_FREQUENCIES[repeat], REPEAT_INTERVALS[repeat]);
+        } else if (id.isEmpty()) {
             // Add new
-            success = dbManager.createEvent(title, description, date, location);
+            success = dbManager.createEvent(title, description, date, location, capacity);
         } else {
-            // Update existing
-            success = dbManager.updateEvent(id, title, description, date, location);
+            // Update existing (a larger capacity promotes volunteers from the waitlist)
+            success = dbManager.updateEvent(id, title, description, date, location, capacity);
         }
         
         if (success) {
@@ -657,7 +1026,7 @@ class ManageEventsPanel extends JPanel {
             "Confirm Deletion", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
             
         if (confirm == JOptionPane.YES_OPTION) {
-            boolean success = dbManager.deleteEvent(id);
+            boolean success = isSeriesId(id) ? dbManager.deleteEventSeries(id) : dbManager.deleteEvent(id);
             if (success) {
                 JOptionPane.showMessageDialog(this, "Event deleted successfully.", "Success", JOptionPane.INFORMATION_MESSAGE);
                 clearForm();
@@ -668,3 +1037,266 @@ class ManageEventsPanel extends JPanel {
         }
     }
 }
+
+// =========================================================================
+// --- Panel 4: Reports (Volunteer Hours) ---
+// =========================================================================
+class ReportsPanel extends JPanel {
+    private static final int LEADERBOARD_SIZE = 10;
+
+    private DatabaseManager dbManager;
+    private DefaultTableModel volunteersModel;
+    private DefaultTableModel locationsModel;
+
+    public ReportsPanel(VolunteerApp app) {
+        this.dbManager = app.getDbManager();
+        setBackground(Color.WHITE);
+        setLayout(new BorderLayout(10, 10));
+        setBorder(new EmptyBorder(10, 10, 10, 10));
+
+        JLabel title = new JLabel("Volunteer Hours");
+        title.setFont(VolunteerApp.FONT_HEADER);
+        add(title, BorderLayout.NORTH);
+
+        // Two leaderboards side by side
+        JPanel tablesPanel = new JPanel(new GridLayout(1, 2, 10, 10));
+        tablesPanel.setBackground(Color.WHITE);
+
+        volunteersModel = new DefaultTableModel(new String[]{"#", "Volunteer", "Hours"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+        JTable volunteersTable = new JTable(volunteersModel);
+        JScrollPane volunteersScroll = new JScrollPane(volunteersTable);
+        VolunteerApp.styleTable(volunteersTable, volunteersScroll);
+        volunteersScroll.setBorder(BorderFactory.createTitledBorder("Top Volunteers"));
+        tablesPanel.add(volunteersScroll);
+
+        locationsModel = new DefaultTableModel(new String[]{"#", "Location", "Hours"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+        JTable locationsTable = new JTable(locationsModel);
+        JScrollPane locationsScroll = new JScrollPane(locationsTable);
+        VolunteerApp.styleTable(locationsTable, locationsScroll);
+        locationsScroll.setBorder(BorderFactory.createTitledBorder("Top Locations"));
+        tablesPanel.add(locationsScroll);
+
+        add(tablesPanel, BorderLayout.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.setBackground(Color.WHITE);
+        JButton refreshButton = new JButton("Refresh");
+        VolunteerApp.styleButton(refreshButton, VolunteerApp.COLOR_PRIMARY);
+        refreshButton.addActionListener(e -> loadReports());
+        buttonPanel.add(refreshButton);
+        add(buttonPanel, BorderLayout.SOUTH);
+
+        // Reload whenever the tab is shown
+        addComponentListener(new java.awt.event.ComponentAdapter() {
+            @Override
+            public void componentShown(java.awt.event.ComponentEvent e) {
+                loadReports();
+            }
+        });
+        loadReports();
+    }
+
+    public void loadReports() {
+        fillLeaderboard(volunteersModel, dbManager.getTopVolunteers(LEADERBOARD_SIZE));
+        fillLeaderboard(locationsModel, dbManager.getTopLocations(LEADERBOARD_SIZE));
+    }
+
+    private void fillLeaderboard(DefaultTableModel model, List<DatabaseManager.HoursTotal> totals) {
+        model.setRowCount(0);
+        int rank = 1;
+        for (DatabaseManager.HoursTotal total : totals) {
+            Vector<Object> row = new Vector<>();
+            row.add(rank++);
+            row.add(total.label);
+            row.add(String.format("%.2f", total.hours));
+            model.addRow(row);
+        }
+    }
+}
+
+// =========================================================================
+// --- Component: Event Roster (shown under Manage Events) ---
+// =========================================================================
+/**
+ * Shows the signup count and roster of one event. The count comes from the
+ * counter table and appears immediately; the roster is fetched one page at a
+ * time in the background as the user scrolls. Selecting another event cancels
+ * any fetch still in flight, and late results for an old event are discarded.
+ */
+class EventRosterPanel extends JPanel {
+    private static final int PAGE_SIZE = 50;
+
+    private DatabaseManager dbManager;
+    private JLabel countLabel;
+    private JTable rosterTable;
+    private DefaultTableModel rosterModel;
+    private JScrollPane scrollPane;
+
+    // Paging state for the event currently shown
+    private String eventId = null;
+    private String lastVolunteerId = null;
+    private boolean exhausted = true;
+    private SwingWorker<?, ?> pendingFetch = null;
+
+    public EventRosterPanel(DatabaseManager dbManager) {
+        this.dbManager = dbManager;
+        setBackground(Color.WHITE);
+        setLayout(new BorderLayout(5, 5));
+        setPreferredSize(new Dimension(0, 260));
+
+        countLabel = new JLabel("Signups: -");
+        countLabel.setFont(VolunteerApp.FONT_BODY_BOLD);
+        add(countLabel, BorderLayout.NORTH);
+
+        rosterModel = new DefaultTableModel(new String[]{"Volunteer ID", "Name", "Email", "Checked In", "Hours"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) { return false; }
+        };
+        rosterTable = new JTable(rosterModel);
+        scrollPane = new JScrollPane(rosterTable);
+        VolunteerApp.styleTable(rosterTable, scrollPane);
+
+        // Fetch the next page when the user scrolls near the bottom
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            JScrollBar bar = scrollPane.getVerticalScrollBar();
+            if (bar.getValue() + bar.getVisibleAmount() >= bar.getMaximum() - rosterTable.getRowHeight() * 5) {
+                loadNextPage();
+            }
+        });
+        add(scrollPane, BorderLayout.CENTER);
+
+        // Attendance buttons for the selected roster row
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.setBackground(Color.WHITE);
+        JButton checkInButton = new JButton("Check In");
+        VolunteerApp.styleButton(checkInButton, VolunteerApp.COLOR_PRIMARY);
+        checkInButton.addActionListener(e -> onCheckIn());
+        JButton checkOutButton = new JButton("Check Out");
+        VolunteerApp.styleButton(checkOutButton, VolunteerApp.COLOR_SUCCESS);
+        checkOutButton.addActionListener(e -> onCheckOut());
+        buttonPanel.add(checkInButton);
+        buttonPanel.add(checkOutButton);
+        add(buttonPanel, BorderLayout.SOUTH);
+    }
+
+    private String getSelectedVolunteerId() {
+        int selectedRow = rosterTable.getSelectedRow();
+        if (eventId == null || selectedRow == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a volunteer from the roster.", "No Volunteer Selected", JOptionPane.WARNING_MESSAGE);
+            return null;
+        }
+        return (String) rosterModel.getValueAt(selectedRow, 0);
+    }
+
+    private void onCheckIn() {
+        String volunteerId = getSelectedVolunteerId();
+        if (volunteerId == null) return;
+        if (dbManager.checkIn(volunteerId, eventId)) {
+            showEvent(eventId);
+        } else {
+            JOptionPane.showMessageDialog(this, "Check-in failed. The volunteer may already be checked in.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private void onCheckOut() {
+        String volunteerId = getSelectedVolunteerId();
+        if (volunteerId == null) return;
+        if (dbManager.checkOut(volunteerId, eventId)) {
+            showEvent(eventId);
+        } else {
+            JOptionPane.showMessageDialog(this, "Check-out failed. The volunteer must be checked in first.", "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Switches the roster to the given event (or clears it when null).
+     */
+    public void showEvent(String newEventId) {
+        if (pendingFetch != null) {
+            pendingFetch.cancel(true);
+            pendingFetch = null;
+        }
+        eventId = newEventId;
+        lastVolunteerId = null;
+        exhausted = (newEventId == null);
+        rosterModel.setRowCount(0);
+
+        if (newEventId == null) {
+            countLabel.setText("Signups: -");
+            return;
+        }
+        countLabel.setText("Signups: ...");
+        new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() {
+                return dbManager.getSignupCount(newEventId);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled() || !newEventId.equals(eventId)) return;
+                try {
+                    countLabel.setText("Signups: " + get());
+                } catch (Exception e) {
+                    countLabel.setText("Signups: ?");
+                }
+            }
+        }.execute();
+        loadNextPage();
+    }
+
+    private void loadNextPage() {
+        if (eventId == null || exhausted || pendingFetch != null) return;
+
+        String requestedEvent = eventId;
+        String after = lastVolunteerId;
+        SwingWorker<List<DatabaseManager.RosterEntry>, Void> worker = new SwingWorker<>() {
+            @Override
+            protected List<DatabaseManager.RosterEntry> doInBackground() {
+                return dbManager.getRosterPage(requestedEvent, after, PAGE_SIZE);
+            }
+
+            @Override
+            protected void done() {
+                // Ignore results from a fetch that was superseded
+                if (pendingFetch != this) return;
+                pendingFetch = null;
+                if (isCancelled()) return;
+
+                List<DatabaseManager.RosterEntry> page;
+                try {
+                    page = get();
+                } catch (Exception e) {
+                    exhausted = true;
+                    return;
+                }
+                for (DatabaseManager.RosterEntry entry : page) {
+                    Vector<Object> row = new Vector<>();
+                    row.add(entry.volunteerId);
+                    row.add(entry.name);
+                    row.add(entry.email);
+                    row.add(entry.checkedInAt != null ? entry.checkedInAt.replace('T', ' ') : "");
+                    row.add(entry.hours != null ? String.format("%.2f", entry.hours) : "");
+                    rosterModel.addRow(row);
+                }
+                if (!page.isEmpty()) {
+                    lastVolunteerId = page.get(page.size() - 1).volunteerId;
+                }
+                exhausted = page.size() < PAGE_SIZE;
+
+                // Keep loading until the visible area is filled
+                if (!exhausted && rosterTable.getPreferredSize().height <= scrollPane.getViewport().getHeight()) {
+                    loadNextPage();
+                }
+            }
+        };
+        pendingFetch = worker;
+        worker.execute();
+    }
+}
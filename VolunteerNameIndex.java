@@ -0,0 +1,167 @@
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * VolunteerNameIndex (Backend)
+ * In-memory prefix index over volunteer names for type-ahead search. Names are
+ * normalized (accents stripped, lower-cased, whitespace collapsed) and kept in
+ * a sorted map, once for the full name and once per later word, so "ali" finds
+ * both "Alice Smith" and "Sam Ali". A lookup is one range scan of the sorted
+ * keys, which stays well under a frame even with a million volunteers.
+ *
+ * The index is filled by a background thread at startup and kept current by
+ * DatabaseManager's change listener. Searches may run while it is still loading;
+ * volunteers merged away meanwhile are remembered so the loader cannot re-add them.
+ * It contains NO Swing code.
+ */
+public class VolunteerNameIndex implements DatabaseManager.ChangeListener {
+
+    private static final int BUILD_PAGE_SIZE = 5000;
+    private static final int CANDIDATES_PER_RESULT = 10; // scanned before ranking, per result asked for
+    private static final char KEY_SEPARATOR = '\0';
+
+    /** One suggestion. */
+    public static class Match {
+        public final String id;
+        public final String name;
+        public final String email;
+        Match(String id, String name, String email) {
+            this.id = id; this.name = name; this.email = email;
+        }
+        @Override
+        public String toString() {
+            return name + " <" + email + ">";
+        }
+    }
+
+    private static class Entry {
+        final Match match;
+        final List<String> keys;
+        Entry(Match match, List<String> keys) {
+            this.match = match; this.keys = keys;
+        }
+    }
+
+    // Key is "<normalized token or name>\0<id>", so equal names never collide
+    private final ConcurrentSkipListMap<String, String> keys = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Set<String> mergedAway = ConcurrentHashMap.newKeySet(); // IDs are never reused
+    private volatile boolean ready;
+
+    /**
+     * Loads every volunteer on a daemon thread, one page at a time.
+     * Volunteers saved through the listener meanwhile are not overwritten.
+     */
+    public void buildInBackground(DatabaseManager dbManager) {
+        Thread builder = new Thread(() -> {
+            String afterId = null;
+            while (true) {
+                List<DatabaseManager.Volunteer> page = dbManager.getVolunteersPage(afterId, BUILD_PAGE_SIZE);
+                for (DatabaseManager.Volunteer v : page) {
+                    put(v.id, v.name, v.email, false);
+                }
+                if (page.size() < BUILD_PAGE_SIZE) break;
+                afterId = page.get(page.size() - 1).id;
+            }
+            ready = true;
+        }, "volunteer-name-index");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    /** @return true once the initial load has finished */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns up to limit volunteers whose full name, or any word of it,
+     * starts with the given prefix. Full-name matches are listed first.
+     */
+    public List<Match> search(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) return new ArrayList<>();
+
+        // Word matches can sort ahead of full-name ones, so scan a bounded number of
+        // candidates past the limit, rank full-name hits first, then truncate
+        int cap = (int) Math.min(Integer.MAX_VALUE, (long) limit * CANDIDATES_PER_RESULT);
+        Map<String, Match> fullNameMatches = new LinkedHashMap<>();
+        Map<String, Match> wordMatches = new LinkedHashMap<>();
+        for (Map.Entry<String, String> e : keys.tailMap(normalized).entrySet()) {
+            if (!e.getKey().startsWith(normalized)) break;
+            Entry entry = entries.get(e.getValue());
+            if (entry == null || fullNameMatches.containsKey(entry.match.id)) continue;
+            if (e.getKey().equals(entry.keys.get(0))) {
+                wordMatches.remove(entry.match.id);
+                fullNameMatches.put(entry.match.id, entry.match);
+            } else if (!wordMatches.containsKey(entry.match.id)) {
+                if (fullNameMatches.size() + wordMatches.size() >= cap) break;
+                wordMatches.put(entry.match.id, entry.match);
+            }
+            if (fullNameMatches.size() >= limit) break;
+        }
+        List<Match> results = new ArrayList<>(fullNameMatches.values());
+        results.addAll(wordMatches.values());
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    // --- DatabaseManager.ChangeListener ---
+
+    @Override
+    public void volunteerSaved(String volunteerId, String name, String email) {
+        put(volunteerId, name, email, true);
+    }
+
+    @Override
+    public void volunteerMerged(String duplicateId, String keptId) {
+        // Recorded first: a loader page read before the merge may still try to add the duplicate
+        mergedAway.add(duplicateId);
+        entries.computeIfPresent(duplicateId, (k, old) -> {
+            old.keys.forEach(key -> keys.remove(key, duplicateId));
+            return null;
+        });
+    }
+
+    // --- Internals ---
+
+    private void put(String id, String name, String email, boolean replace) {
+        entries.compute(id, (k, old) -> {
+            if (mergedAway.contains(id)) return old;
+            if (old != null && !replace) return old;
+            if (old != null) {
+                old.keys.forEach(key -> keys.remove(key, id));
+            }
+            List<String> entryKeys = keysFor(id, name);
+            entryKeys.forEach(key -> keys.put(key, id));
+            return new Entry(new Match(id, name, email), entryKeys);
+        });
+    }
+
+    private static List<String> keysFor(String id, String name) {
+        List<String> result = new ArrayList<>();
+        String normalized = normalize(name);
+        result.add(normalized + KEY_SEPARATOR + id);
+        int space = normalized.indexOf(' ');
+        while (space >= 0) {
+            result.add(normalized.substring(space + 1) + KEY_SEPARATOR + id);
+            space = normalized.indexOf(' ', space + 1);
+        }
+        return result;
+    }
+
+    static String normalize(String text) {
+        if (text == null) return "";
+        String stripped = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return stripped.toLowerCase().trim().replaceAll("\\s+", " ");
+    }
+}